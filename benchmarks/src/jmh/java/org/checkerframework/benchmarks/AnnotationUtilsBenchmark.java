@@ -0,0 +1,61 @@
+package org.checkerframework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.javacutil.AnnotationBuilder;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Benchmarks {@link AnnotationUtils#areSame(AnnotationMirror, AnnotationMirror)}. */
+public class AnnotationUtilsBenchmark {
+
+    /**
+     * The qualifiers of the program and a copy of each of them. The copies of qualifiers with
+     * element values are distinct objects, so that comparing such a qualifier with its copy does
+     * not take the identity shortcut. Qualifiers without element values are canonical, so their
+     * copies are the same objects.
+     */
+    @State(Scope.Benchmark)
+    public static class Qualifiers {
+
+        /** The qualifiers of the program. */
+        List<AnnotationMirror> qualifiers;
+
+        /** Copies of {@link #qualifiers}, in the same order. */
+        List<AnnotationMirror> copies = new ArrayList<>();
+
+        /**
+         * Collects and copies the qualifiers.
+         *
+         * @param program the type-checked program
+         */
+        @Setup(Level.Trial)
+        public void setup(CheckedProgram program) {
+            qualifiers = program.qualifiers();
+            for (AnnotationMirror qualifier : qualifiers) {
+                copies.add(new AnnotationBuilder(program.env, qualifier).build());
+            }
+        }
+    }
+
+    /**
+     * Compares every qualifier with every copy.
+     *
+     * @param qualifiers the qualifiers and their copies
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void areSame(Qualifiers qualifiers, Blackhole blackhole) {
+        for (AnnotationMirror qualifier : qualifiers.qualifiers) {
+            for (AnnotationMirror copy : qualifiers.copies) {
+                blackhole.consume(AnnotationUtils.areSame(qualifier, copy));
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.MethodTree;
+import org.checkerframework.dataflow.cfg.CFGBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Benchmarks {@link CFGBuilder#build} on the generated methods. */
+public class CFGBuilderBenchmark {
+
+    /**
+     * Builds the control flow graph of every method of the program.
+     *
+     * @param program the type-checked program
+     * @param blackhole consumes the control flow graphs
+     */
+    @Benchmark
+    public void build(CheckedProgram program, Blackhole blackhole) {
+        for (MethodTree method : program.methods) {
+            blackhole.consume(
+                    CFGBuilder.build(program.root, method, program.classTree, program.env));
+        }
+    }
+}
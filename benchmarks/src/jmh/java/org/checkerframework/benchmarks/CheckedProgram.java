@@ -0,0 +1,194 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.checkerframework.checker.nullness.NullnessChecker;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.checkerframework.framework.type.QualifierHierarchy;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.TreeUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The program that the benchmarks operate on: the source from {@link GeneratedProgram}, compiled
+ * in memory and type-checked by the Nullness Checker. After type-checking, the checker's type
+ * factory, the compilation unit and the trees and elements of the generated class remain available
+ * to the benchmark methods.
+ */
+@State(Scope.Benchmark)
+public class CheckedProgram {
+
+    /** The number of statements in each generated method. */
+    @Param({"100", "1000"})
+    public int statements;
+
+    /** The checker that type-checked the program. */
+    public NullnessChecker checker;
+
+    /** The type factory of {@link #checker}. */
+    public GenericAnnotatedTypeFactory<?, ?, ?, ?> factory;
+
+    /** The processing environment of the compilation. */
+    public ProcessingEnvironment env;
+
+    /** The compilation unit of the generated class. */
+    public CompilationUnitTree root;
+
+    /** The declaration of the generated class. */
+    public ClassTree classTree;
+
+    /** The declarations of the methods of the generated class, excluding the constructor. */
+    public List<MethodTree> methods;
+
+    /** The fields of the generated class. */
+    public List<VariableElement> fields;
+
+    /**
+     * Compiles and type-checks the generated program.
+     *
+     * @throws IOException if javac cannot read the generated source
+     */
+    @Setup(Level.Trial)
+    public void typeCheck() throws IOException {
+        String source = GeneratedProgram.source(statements);
+        JavaFileObject file =
+                new SimpleJavaFileObject(
+                        URI.create("string:///" + GeneratedProgram.CLASS_NAME + ".java"),
+                        JavaFileObject.Kind.SOURCE) {
+                    @Override
+                    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                        return source;
+                    }
+                };
+        List<String> options =
+                Arrays.asList(
+                        "-classpath", System.getProperty("java.class.path"), "-ApermitMissingJdk");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        // The checker issues warnings for the generated program, which are not of interest.
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavacTask task =
+                (JavacTask)
+                        compiler.getTask(
+                                null,
+                                null,
+                                diagnostics,
+                                options,
+                                null,
+                                Collections.singletonList(file));
+        checker = new NullnessChecker();
+        task.setProcessors(Collections.singletonList(checker));
+        task.analyze();
+
+        factory = checker.getTypeFactory();
+        if (factory == null) {
+            throw new Error("The checker did not run: " + diagnostics.getDiagnostics());
+        }
+        env = checker.getProcessingEnvironment();
+
+        TypeElement classElement =
+                env.getElementUtils().getTypeElement(GeneratedProgram.CLASS_NAME);
+        TreePath classPath = Trees.instance(task).getPath(classElement);
+        root = classPath.getCompilationUnit();
+        classTree = (ClassTree) classPath.getLeaf();
+        methods = new ArrayList<>();
+        for (Tree member : classTree.getMembers()) {
+            if (member.getKind() == Tree.Kind.METHOD
+                    && !TreeUtils.isConstructor((MethodTree) member)) {
+                methods.add((MethodTree) member);
+            }
+        }
+        fields = ElementFilter.fieldsIn(classElement.getEnclosedElements());
+    }
+
+    /**
+     * Returns the annotated types of the fields of the generated class.
+     *
+     * @return the annotated types of the fields of the generated class
+     */
+    public List<AnnotatedTypeMirror> fieldTypes() {
+        List<AnnotatedTypeMirror> types = new ArrayList<>();
+        for (VariableElement field : fields) {
+            types.add(factory.getAnnotatedType(field));
+        }
+        return types;
+    }
+
+    /**
+     * Returns the distinct qualifiers that occur in the types of the fields of the generated class,
+     * together with the top and bottom qualifiers of every hierarchy.
+     *
+     * @return the distinct qualifiers of the program
+     */
+    public List<AnnotationMirror> qualifiers() {
+        QualifierHierarchy qualifierHierarchy = factory.getQualifierHierarchy();
+        List<AnnotationMirror> qualifiers = new ArrayList<>();
+        addQualifiers(qualifierHierarchy.getTopAnnotations(), qualifiers);
+        addQualifiers(qualifierHierarchy.getBottomAnnotations(), qualifiers);
+        for (AnnotatedTypeMirror type : fieldTypes()) {
+            addQualifiers(type, qualifiers);
+        }
+        return qualifiers;
+    }
+
+    /**
+     * Adds the qualifiers of {@code type} and of its type arguments and component types to {@code
+     * qualifiers}, unless they are already present.
+     *
+     * @param type an annotated type
+     * @param qualifiers the list to which to add the qualifiers
+     */
+    private static void addQualifiers(AnnotatedTypeMirror type, List<AnnotationMirror> qualifiers) {
+        addQualifiers(type.getAnnotations(), qualifiers);
+        if (type instanceof AnnotatedDeclaredType) {
+            for (AnnotatedTypeMirror typeArg : ((AnnotatedDeclaredType) type).getTypeArguments()) {
+                addQualifiers(typeArg, qualifiers);
+            }
+        } else if (type instanceof AnnotatedArrayType) {
+            addQualifiers(((AnnotatedArrayType) type).getComponentType(), qualifiers);
+        }
+    }
+
+    /**
+     * Adds each of {@code annotations} to {@code qualifiers}, unless it is already present.
+     *
+     * @param annotations the annotations to add
+     * @param qualifiers the list to which to add the annotations
+     */
+    private static void addQualifiers(
+            Iterable<? extends AnnotationMirror> annotations, List<AnnotationMirror> qualifiers) {
+        for (AnnotationMirror annotation : annotations) {
+            if (!AnnotationUtils.containsSame(qualifiers, annotation)) {
+                qualifiers.add(annotation);
+            }
+        }
+    }
+}
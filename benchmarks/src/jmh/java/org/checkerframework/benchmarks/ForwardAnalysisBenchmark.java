@@ -0,0 +1,60 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.MethodTree;
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.dataflow.analysis.ForwardAnalysisImpl;
+import org.checkerframework.dataflow.cfg.CFGBuilder;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.constantpropagation.Constant;
+import org.checkerframework.dataflow.constantpropagation.ConstantPropagationStore;
+import org.checkerframework.dataflow.constantpropagation.ConstantPropagationTransfer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link ForwardAnalysisImpl#performAnalysis(ControlFlowGraph)} with the constant
+ * propagation analysis on the generated methods.
+ */
+public class ForwardAnalysisBenchmark {
+
+    /** The control flow graphs of the methods of the program. */
+    @State(Scope.Benchmark)
+    public static class Graphs {
+
+        /** The control flow graphs. */
+        List<ControlFlowGraph> cfgs = new ArrayList<>();
+
+        /**
+         * Builds the control flow graphs.
+         *
+         * @param program the type-checked program
+         */
+        @Setup(Level.Trial)
+        public void setup(CheckedProgram program) {
+            for (MethodTree method : program.methods) {
+                cfgs.add(CFGBuilder.build(program.root, method, program.classTree, program.env));
+            }
+        }
+    }
+
+    /**
+     * Runs the constant propagation analysis to a fixpoint on every control flow graph.
+     *
+     * @param graphs the control flow graphs
+     * @param blackhole consumes the analysis results
+     */
+    @Benchmark
+    public void performAnalysis(Graphs graphs, Blackhole blackhole) {
+        for (ControlFlowGraph cfg : graphs.cfgs) {
+            ForwardAnalysisImpl<Constant, ConstantPropagationStore, ConstantPropagationTransfer>
+                    analysis = new ForwardAnalysisImpl<>(new ConstantPropagationTransfer());
+            analysis.performAnalysis(cfg);
+            blackhole.consume(analysis.getResult());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.checkerframework.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Generates the Java program that the benchmarks type-check and analyze. The program is a single
+ * class with one field for each combination of a Java type and a nullness annotation, and a number
+ * of methods whose bodies are long sequences of assignments, branches and loops.
+ */
+public class GeneratedProgram {
+
+    /** The name of the generated class. It is in the unnamed package. */
+    public static final String CLASS_NAME = "BenchmarkSubject";
+
+    /** The number of methods in the generated class. */
+    public static final int METHODS = 4;
+
+    /**
+     * The Java types of the generated fields. Many of these types are subtypes of one another, so
+     * that subtyping checks between them go through the interesting parts of the type hierarchy.
+     */
+    private static final List<String> FIELD_TYPES =
+            Arrays.asList(
+                    "Object",
+                    "Number",
+                    "Integer",
+                    "Comparable<Integer>",
+                    "CharSequence",
+                    "String",
+                    "Collection<? extends Number>",
+                    "List<Integer>",
+                    "ArrayList<Integer>",
+                    "List<@Nullable Integer>",
+                    "ArrayList<@Nullable Integer>",
+                    "Map<String, List<Integer>>",
+                    "HashMap<String, List<Integer>>",
+                    "Map<@Nullable String, List<@Nullable Integer>>",
+                    "HashMap<@Nullable String, List<@Nullable Integer>>",
+                    "Map<String, Map<String, List<Integer>>>",
+                    "HashMap<String, Map<String, List<Integer>>>");
+
+    /** The nullness annotations that are written on the generated fields. */
+    private static final List<String> FIELD_ANNOTATIONS =
+            Arrays.asList("", "@Nullable ", "@MonotonicNonNull ");
+
+    /**
+     * The statements of the generated methods, which are repeated cyclically. {@code %1$d} is the
+     * index of the statement and {@code %2$d} the index of the previous statement. In scope are
+     * the parameters {@code int a}, {@code @Nullable String s} and {@code List<@Nullable Integer>
+     * list}.
+     */
+    private static final List<String> STATEMENTS =
+            Arrays.asList(
+                    "int v%1$d = a * %1$d + 1;",
+                    "if (a > %1$d) { a = a - %1$d; } else { a = a + 1; }",
+                    "if (s != null) { a += s.length(); }",
+                    "for (int j%1$d = 0; j%1$d < 3; j%1$d++) { a ^= j%1$d; }",
+                    "String o%1$d = (a %% 2 == 0) ? s : null;",
+                    "if (o%2$d != null) { a += o%2$d.hashCode(); }",
+                    "Integer e%1$d = list.isEmpty() ? null : list.get(0);",
+                    "if (e%2$d != null && e%2$d > a) { a = e%2$d; }"
+                            + " else if (a == %1$d) { s = null; }");
+
+    /** Do not instantiate. */
+    private GeneratedProgram() {
+        throw new Error("Do not instantiate");
+    }
+
+    /**
+     * Returns the source code of the generated class.
+     *
+     * @param statements the number of statements in each method
+     * @return the source code of the generated class
+     */
+    public static String source(int statements) {
+        StringJoiner source = new StringJoiner(System.lineSeparator());
+        source.add("import java.util.*;");
+        source.add("import org.checkerframework.checker.nullness.qual.*;");
+        source.add("public class " + CLASS_NAME + " {");
+        int field = 0;
+        for (String type : FIELD_TYPES) {
+            for (String annotation : FIELD_ANNOTATIONS) {
+                source.add("    " + annotation + type + " f" + field + ";");
+                field++;
+            }
+        }
+        for (int method = 0; method < METHODS; method++) {
+            source.add(
+                    "    int m"
+                            + method
+                            + "(int a, @Nullable String s, List<@Nullable Integer> list) {");
+            for (int i = 0; i < statements; i++) {
+                String statement = STATEMENTS.get(i % STATEMENTS.size());
+                source.add("        " + String.format(statement, i, i - 1));
+            }
+            source.add("        return a;");
+            source.add("    }");
+        }
+        source.add("}");
+        return source.toString();
+    }
+}
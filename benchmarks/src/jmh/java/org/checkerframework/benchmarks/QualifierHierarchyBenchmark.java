@@ -0,0 +1,67 @@
+package org.checkerframework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.framework.type.QualifierHierarchy;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Benchmarks {@link QualifierHierarchy#leastUpperBound(AnnotationMirror, AnnotationMirror)}. */
+public class QualifierHierarchyBenchmark {
+
+    /** The pairs of qualifiers of the program that are in the same hierarchy. */
+    @State(Scope.Benchmark)
+    public static class QualifierPairs {
+
+        /** The qualifier hierarchy of the checker. */
+        QualifierHierarchy qualifierHierarchy;
+
+        /** The first qualifier of each pair. */
+        List<AnnotationMirror> firsts = new ArrayList<>();
+
+        /** The second qualifier of each pair. */
+        List<AnnotationMirror> seconds = new ArrayList<>();
+
+        /**
+         * Collects the pairs of qualifiers.
+         *
+         * @param program the type-checked program
+         */
+        @Setup(Level.Trial)
+        public void setup(CheckedProgram program) {
+            qualifierHierarchy = program.factory.getQualifierHierarchy();
+            List<AnnotationMirror> qualifiers = program.qualifiers();
+            for (AnnotationMirror first : qualifiers) {
+                for (AnnotationMirror second : qualifiers) {
+                    if (AnnotationUtils.areSame(
+                            qualifierHierarchy.getTopAnnotation(first),
+                            qualifierHierarchy.getTopAnnotation(second))) {
+                        firsts.add(first);
+                        seconds.add(second);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the least upper bound of every pair of qualifiers.
+     *
+     * @param pairs the pairs of qualifiers
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void leastUpperBound(QualifierPairs pairs, Blackhole blackhole) {
+        for (int i = 0; i < pairs.firsts.size(); i++) {
+            blackhole.consume(
+                    pairs.qualifierHierarchy.leastUpperBound(
+                            pairs.firsts.get(i), pairs.seconds.get(i)));
+        }
+    }
+}
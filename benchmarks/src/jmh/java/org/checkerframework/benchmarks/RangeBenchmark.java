@@ -0,0 +1,210 @@
+package org.checkerframework.benchmarks;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.checkerframework.common.value.util.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the arithmetic of {@link Range}, which the Value Checker and the Index Checker perform
+ * for every integral expression. The {@code baseline} benchmarks perform the same operations with
+ * the former implementation, which widened to {@link BigInteger} unless both ranges were within
+ * half of the long range (or, for multiplication, within the int range).
+ */
+public class RangeBenchmark {
+
+    /** Ranges of the kinds that the Value Checker computes. */
+    @State(Scope.Benchmark)
+    public static class Ranges {
+
+        /** The operands of every benchmark. Each benchmark combines every pair of them. */
+        List<Range> ranges = new ArrayList<>();
+
+        /** Creates the operands. */
+        public Ranges() {
+            for (long i = -3; i <= 3; i++) {
+                ranges.add(Range.create(i, i));
+            }
+            ranges.add(Range.create(0, 10));
+            ranges.add(Range.create(-100, 100));
+            ranges.add(Range.create(1000, 1000000));
+            ranges.add(Range.create(Integer.MAX_VALUE, Integer.MAX_VALUE));
+            ranges.add(Range.BYTE_EVERYTHING);
+            ranges.add(Range.CHAR_EVERYTHING);
+            ranges.add(Range.INT_EVERYTHING);
+            ranges.add(Range.create(1L << 40, 1L << 41));
+            ranges.add(Range.create(Long.MAX_VALUE - 10, Long.MAX_VALUE));
+            ranges.add(Range.create(Long.MIN_VALUE, Long.MIN_VALUE + 10));
+            ranges.add(Range.LONG_EVERYTHING);
+        }
+    }
+
+    /**
+     * Adds, subtracts, and multiplies every pair of ranges.
+     *
+     * @param ranges the operands
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void arithmetic(Ranges ranges, Blackhole blackhole) {
+        for (Range left : ranges.ranges) {
+            for (Range right : ranges.ranges) {
+                blackhole.consume(left.plus(right));
+                blackhole.consume(left.minus(right));
+                blackhole.consume(left.times(right));
+            }
+        }
+    }
+
+    /**
+     * Adds, subtracts, and multiplies every pair of ranges with the former implementation.
+     *
+     * @param ranges the operands
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void baselineArithmetic(Ranges ranges, Blackhole blackhole) {
+        for (Range left : ranges.ranges) {
+            for (Range right : ranges.ranges) {
+                blackhole.consume(BaselineRange.plus(left, right));
+                blackhole.consume(BaselineRange.minus(left, right));
+                blackhole.consume(BaselineRange.times(left, right));
+            }
+        }
+    }
+
+    /**
+     * Hashes every range, as the Value Checker does when it stores ranges in sets and maps.
+     *
+     * @param ranges the ranges
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void hash(Ranges ranges, Blackhole blackhole) {
+        for (Range range : ranges.ranges) {
+            blackhole.consume(range.hashCode());
+        }
+    }
+
+    /**
+     * The arithmetic of {@link Range} as it was implemented before overflow was detected with
+     * primitive arithmetic. Assumes that {@link Range#getIgnoreOverflow()} is false.
+     */
+    static class BaselineRange {
+
+        /** The number of long values, as a BigInteger. */
+        private static final BigInteger BIG_LONG_WIDTH =
+                BigInteger.valueOf(Long.MAX_VALUE)
+                        .subtract(BigInteger.valueOf(Long.MIN_VALUE))
+                        .add(BigInteger.ONE);
+
+        /** Do not instantiate. */
+        private BaselineRange() {
+            throw new Error("Do not instantiate");
+        }
+
+        /**
+         * Returns the sum of two ranges.
+         *
+         * @param left a range
+         * @param right a range
+         * @return the sum of {@code left} and {@code right}
+         */
+        static Range plus(Range left, Range right) {
+            if (left.isNothing() || right.isNothing()) {
+                return Range.NOTHING;
+            }
+            if (isWithinHalfLong(left) && isWithinHalfLong(right)) {
+                return Range.create(left.from + right.from, left.to + right.to);
+            }
+            return create(
+                    BigInteger.valueOf(left.from).add(BigInteger.valueOf(right.from)),
+                    BigInteger.valueOf(left.to).add(BigInteger.valueOf(right.to)));
+        }
+
+        /**
+         * Returns the difference of two ranges.
+         *
+         * @param left a range
+         * @param right a range
+         * @return {@code right} subtracted from {@code left}
+         */
+        static Range minus(Range left, Range right) {
+            if (left.isNothing() || right.isNothing()) {
+                return Range.NOTHING;
+            }
+            if (isWithinHalfLong(left) && isWithinHalfLong(right)) {
+                return Range.create(left.from - right.to, left.to - right.from);
+            }
+            return create(
+                    BigInteger.valueOf(left.from).subtract(BigInteger.valueOf(right.to)),
+                    BigInteger.valueOf(left.to).subtract(BigInteger.valueOf(right.from)));
+        }
+
+        /**
+         * Returns the product of two ranges.
+         *
+         * @param left a range
+         * @param right a range
+         * @return the product of {@code left} and {@code right}
+         */
+        static Range times(Range left, Range right) {
+            if (left.isNothing() || right.isNothing()) {
+                return Range.NOTHING;
+            }
+            if (left.isWithin(Integer.MIN_VALUE, Integer.MAX_VALUE)
+                    && right.isWithin(Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+                List<Long> possibleValues =
+                        Arrays.asList(
+                                left.from * right.from,
+                                left.from * right.to,
+                                left.to * right.from,
+                                left.to * right.to);
+                return Range.create(possibleValues);
+            }
+            BigInteger leftFrom = BigInteger.valueOf(left.from);
+            BigInteger leftTo = BigInteger.valueOf(left.to);
+            BigInteger rightFrom = BigInteger.valueOf(right.from);
+            BigInteger rightTo = BigInteger.valueOf(right.to);
+            List<BigInteger> possibleValues =
+                    Arrays.asList(
+                            leftFrom.multiply(rightFrom),
+                            leftFrom.multiply(rightTo),
+                            leftTo.multiply(rightFrom),
+                            leftTo.multiply(rightTo));
+            return create(Collections.min(possibleValues), Collections.max(possibleValues));
+        }
+
+        /**
+         * Returns true if the range is within half of the long range.
+         *
+         * @param range a range
+         * @return true if the range is within half of the long range
+         */
+        private static boolean isWithinHalfLong(Range range) {
+            return range.isWithin(Long.MIN_VALUE >> 1, Long.MAX_VALUE >> 1);
+        }
+
+        /**
+         * Converts a range with BigInteger bounds to a Range, wrapping around if it overflows.
+         *
+         * @param from the lower bound
+         * @param to the upper bound
+         * @return the corresponding Range
+         */
+        private static Range create(BigInteger from, BigInteger to) {
+            if (to.subtract(from).add(BigInteger.ONE).compareTo(BIG_LONG_WIDTH) > 0) {
+                return Range.EVERYTHING;
+            }
+            long longFrom = from.longValue();
+            long longTo = to.longValue();
+            return longFrom <= longTo ? Range.create(longFrom, longTo) : Range.EVERYTHING;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.MethodTree;
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.framework.flow.CFAbstractStore;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Benchmarks {@link CFAbstractStore#leastUpperBound(CFAbstractStore)}. */
+public class StoreBenchmark {
+
+    /** The regular exit stores of the methods of the program. */
+    @State(Scope.Benchmark)
+    public static class ExitStores {
+
+        /** The exit stores. */
+        Stores<?> stores;
+
+        /**
+         * Collects the exit stores.
+         *
+         * @param program the type-checked program
+         */
+        @Setup(Level.Trial)
+        public void setup(CheckedProgram program) {
+            stores = Stores.of(program.factory, program.methods);
+        }
+    }
+
+    /**
+     * A list of stores of the same type.
+     *
+     * @param <S> the type of the stores
+     */
+    static class Stores<S extends CFAbstractStore<?, S>> {
+
+        /** The stores. */
+        final List<S> stores = new ArrayList<>();
+
+        /**
+         * Returns the regular exit stores of the given methods.
+         *
+         * @param <S> the type of the stores
+         * @param factory the type factory that performed the flow analysis of the methods
+         * @param methods the methods
+         * @return the regular exit stores of {@code methods}
+         */
+        static <S extends CFAbstractStore<?, S>> Stores<S> of(
+                GenericAnnotatedTypeFactory<?, S, ?, ?> factory, List<MethodTree> methods) {
+            Stores<S> result = new Stores<>();
+            for (MethodTree method : methods) {
+                S store = factory.getRegularExitStore(method);
+                if (store != null) {
+                    result.stores.add(store);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Computes the least upper bound of every pair of stores.
+         *
+         * @param blackhole consumes the results
+         */
+        void leastUpperBounds(Blackhole blackhole) {
+            for (S first : stores) {
+                for (S second : stores) {
+                    blackhole.consume(first.leastUpperBound(second));
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the least upper bound of every pair of exit stores.
+     *
+     * @param exitStores the exit stores
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void leastUpperBound(ExitStores exitStores, Blackhole blackhole) {
+        exitStores.stores.leastUpperBounds(blackhole);
+    }
+}
@@ -0,0 +1,67 @@
+package org.checkerframework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.util.Types;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.TypeHierarchy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Benchmarks {@link org.checkerframework.framework.type.DefaultTypeHierarchy#isSubtype}. */
+public class TypeHierarchyBenchmark {
+
+    /** The pairs of field types whose Java types are in a subtype relationship. */
+    @State(Scope.Benchmark)
+    public static class SubtypePairs {
+
+        /** The type hierarchy of the checker. */
+        TypeHierarchy typeHierarchy;
+
+        /** The subtype of each pair. */
+        List<AnnotatedTypeMirror> subtypes = new ArrayList<>();
+
+        /** The supertype of each pair. */
+        List<AnnotatedTypeMirror> supertypes = new ArrayList<>();
+
+        /**
+         * Collects the pairs of field types.
+         *
+         * @param program the type-checked program
+         */
+        @Setup(Level.Trial)
+        public void setup(CheckedProgram program) {
+            typeHierarchy = program.factory.getTypeHierarchy();
+            Types types = program.env.getTypeUtils();
+            List<AnnotatedTypeMirror> fieldTypes = program.fieldTypes();
+            for (AnnotatedTypeMirror subtype : fieldTypes) {
+                for (AnnotatedTypeMirror supertype : fieldTypes) {
+                    if (types.isSubtype(
+                            types.erasure(subtype.getUnderlyingType()),
+                            types.erasure(supertype.getUnderlyingType()))) {
+                        subtypes.add(subtype);
+                        supertypes.add(supertype);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks every pair of field types for subtyping.
+     *
+     * @param pairs the pairs of field types
+     * @param blackhole consumes the results
+     */
+    @Benchmark
+    public void isSubtype(SubtypePairs pairs, Blackhole blackhole) {
+        for (int i = 0; i < pairs.subtypes.size(); i++) {
+            blackhole.consume(
+                    pairs.typeHierarchy.isSubtype(pairs.subtypes.get(i), pairs.supertypes.get(i)));
+        }
+    }
+}
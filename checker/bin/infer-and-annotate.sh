@@ -10,12 +10,17 @@
 # program must be on the search path (that is, in the PATH environment variable).
 
 # This script receives as arguments:
-# 0. Any number of cmd-line arguments to insert-annotations-to-source (optional).
-# 1. Processor's name (in any form recognized by CF's javac -processor argument).
-# 2. Classpath (target project's classpath).
-# 3. Any number of extra processor arguments to be passed to the checker.
-# 4. Any number of paths to .jaif files -- used as input (optional).
-# 5. Any number of paths to .java files in a program.
+# 1. --incremental (optional). If given, each iteration after the first
+#    type-checks only the .java files that mention a class whose .jaif file
+#    changed in the previous iteration, instead of all .java files. When
+#    that converges, one iteration type-checks all .java files again, and
+#    the script stops only if that iteration changes nothing.
+# 2. Any number of cmd-line arguments to insert-annotations-to-source (optional).
+# 3. Processor's name (in any form recognized by CF's javac -processor argument).
+# 4. Classpath (target project's classpath).
+# 5. Any number of extra processor arguments to be passed to the checker.
+# 6. Any number of paths to .jaif files -- used as input (optional).
+# 7. Any number of paths to .java files in a program.
 
 # Example of usage:
 # ./infer-and-annotate.sh "LockChecker,NullnessChecker" \
@@ -48,6 +53,7 @@ PREV_ITERATION_DIR=build/prev-whole-program-inference
 
 debug=
 interactive=
+incremental=
 # For debugging
 # debug=1
 # Require user confirmation before running each command
@@ -67,6 +73,11 @@ jaif_files=()
 # such as -processorpath and -source, which are followed by a value.
 read_input() {
 
+    if [ "$1" = "--incremental" ]; then
+        incremental=1
+        shift
+    fi
+
     # Collect command-line arguments that come before the preprocessor.
     # Assumes that every command line argument starts with a hyphen.
     for i in "$@"
@@ -108,10 +119,50 @@ read_input() {
     done
 }
 
+# Sets changed_jaifs to the .jaif files in $WHOLE_PROGRAM_INFERENCE_DIR that
+# differ from the ones in $PREV_ITERATION_DIR, and files_to_check to the .java
+# files that mention the class of a .jaif file that was added, removed, or
+# changed. A .java file that mentions such a class declares it or may use its
+# inferred annotations, so it must be checked again.
+compute_changes() {
+    changed_jaifs=()
+    changed_classes=()
+    # shellcheck disable=SC2044
+    for jaif in $( { (cd $PREV_ITERATION_DIR && find . -name "*.jaif")
+                     (cd $WHOLE_PROGRAM_INFERENCE_DIR && find . -name "*.jaif"); } | sort -u ); do
+        if ! cmp -s "$PREV_ITERATION_DIR/$jaif" "$WHOLE_PROGRAM_INFERENCE_DIR/$jaif"; then
+            if [ -f "$WHOLE_PROGRAM_INFERENCE_DIR/$jaif" ]; then
+                changed_jaifs+=( "$WHOLE_PROGRAM_INFERENCE_DIR/$jaif" )
+            fi
+            # The file is named after the binary name of its class, such as
+            # my.pakkage.Outer$Inner.jaif. Keep the simple name of the
+            # outermost class, which is what other files mention.
+            class=$(basename "$jaif" .jaif)
+            class=${class##*.}
+            class=${class%%\$*}
+            changed_classes+=( "$class" )
+        fi
+    done
+    files_to_check=()
+    for file in "${java_files[@]}"; do
+        for class in "${changed_classes[@]}"; do
+            if grep -qw -- "$class" "$file"; then
+                files_to_check+=( "$file" )
+                break
+            fi
+        done
+    done
+}
+
 # Iteratively runs the Checker
 infer_and_annotate() {
     mkdir -p $TEMP_DIR
     DIFF_JAIF=firstdiff
+    # Whether the next iteration type-checks all .java files from scratch.
+    # Always true without --incremental.
+    full=1
+    files_to_check=( "${java_files[@]}" )
+    classpath=$cp
     # Create/clean whole-program-inference directory.
     rm -rf $WHOLE_PROGRAM_INFERENCE_DIR
     mkdir -p $WHOLE_PROGRAM_INFERENCE_DIR
@@ -129,15 +180,24 @@ infer_and_annotate() {
         rm -rf $PREV_ITERATION_DIR
         mv $WHOLE_PROGRAM_INFERENCE_DIR $PREV_ITERATION_DIR
         mkdir -p $WHOLE_PROGRAM_INFERENCE_DIR
+        if [ $incremental ] && [ ! $full ]; then
+            # Start from the previous results, so that the classes that are
+            # not checked again keep them. The classes that are not checked
+            # again are read from the class files of earlier iterations.
+            cp -r $PREV_ITERATION_DIR/. $WHOLE_PROGRAM_INFERENCE_DIR/
+            classpath=$TEMP_DIR:$cp
+        else
+            classpath=$cp
+        fi
 
         # Runs CF's javac
-        command="$CHECKERBIN/javac -d $TEMP_DIR/ -cp $cp -processor $processor -Ainfer=jaifs -Awarns -Xmaxwarns 10000 ${extra_args[*]} ${java_files[*]}"
+        command="$CHECKERBIN/javac -d $TEMP_DIR/ -cp $classpath -processor $processor -Ainfer=jaifs -Awarns -Xmaxwarns 10000 ${extra_args[*]} ${files_to_check[*]}"
         echo "About to run: ${command}"
         if [ $interactive ]; then
             echo "Press any key to run command... "
             IFS="" read -r _
         fi
-        "$CHECKERBIN"/javac -d "$TEMP_DIR/" -cp "$cp" -processor "$processor" -Ainfer -Awarns -Xmaxwarns 10000 "${extra_args[@]}" "${java_files[@]}" || true
+        "$CHECKERBIN"/javac -d "$TEMP_DIR/" -cp "$classpath" -processor "$processor" -Ainfer -Awarns -Xmaxwarns 10000 "${extra_args[@]}" "${files_to_check[@]}" || true
         # Deletes .unannotated backup files. This is necessary otherwise the
         # insert-annotations-to-source tool will use this file instead of the
         # updated .java one.
@@ -146,7 +206,14 @@ infer_and_annotate() {
         do
             rm -f "${file}.unannotated"
         done
-        if [ ! "$(find $WHOLE_PROGRAM_INFERENCE_DIR -prune -empty)" ]
+        if [ $incremental ]
+        then
+            compute_changes
+            # The unchanged .jaif files were inserted in an earlier iteration.
+            if [ ${#changed_jaifs[@]} -ne 0 ]; then
+                insert-annotations-to-source "${insert_to_source_args[@]}" -i "${changed_jaifs[@]}" "${java_files[@]}"
+            fi
+        elif [ ! "$(find $WHOLE_PROGRAM_INFERENCE_DIR -prune -empty)" ]
         then
             # Only insert annotations if there is at least one .jaif file.
             # shellcheck disable=SC2046
@@ -157,6 +224,24 @@ infer_and_annotate() {
         # When this happens, this script halts due to the "set -e"
         # in its header. To avoid this problem, we add the "|| true" below.
         DIFF_JAIF="$(diff -qr $PREV_ITERATION_DIR $WHOLE_PROGRAM_INFERENCE_DIR || true)"
+        if [ $incremental ]; then
+            if [ "$DIFF_JAIF" = "" ] && [ $full ]; then
+                # A full iteration changed nothing: this is the same
+                # fixpoint as without --incremental.
+                :
+            elif [ "$DIFF_JAIF" = "" ] || [ ${#files_to_check[@]} -eq 0 ]; then
+                # The incremental iterations have converged, or no .java
+                # file mentions a class whose annotations changed. The
+                # dependencies found by compute_changes are approximate (they
+                # miss, for example, uses of inherited members), so check all
+                # .java files once more, and continue if anything changes.
+                full=1
+                files_to_check=( "${java_files[@]}" )
+                DIFF_JAIF=fullcheck
+            else
+                full=
+            fi
+        fi
     done
     if [ ! $debug ]; then
         clean
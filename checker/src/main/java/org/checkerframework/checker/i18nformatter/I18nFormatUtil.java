@@ -178,8 +178,15 @@ public class I18nFormatUtil {
             "", "short", "medium", "long", "full"
         };
 
+        /**
+         * Parses a format string. The parser keeps its state in static fields, so this method is
+         * synchronized: compilations that run concurrently in one JVM may parse at the same time.
+         *
+         * @param pattern a format string
+         * @return the conversion specifiers of {@code pattern}
+         */
         @EnsuresNonNull({"categories", "argumentIndices", "locale"})
-        public static I18nConversion[] parse(String pattern) {
+        public static synchronized I18nConversion[] parse(String pattern) {
             MessageFormatParser.categories = new ArrayList<>();
             MessageFormatParser.argumentIndices = new ArrayList<>();
             MessageFormatParser.locale = Locale.getDefault(Locale.Category.FORMAT);
@@ -479,20 +479,26 @@ public class LockAnnotatedTypeFactory
             return weaker;
         }
 
-        static SideEffectAnnotation weakest = null;
+        /**
+         * The weakest side effect annotation, computed on first use. Volatile, and computed in a
+         * local variable, so that a concurrent caller never sees a value that is not the weakest.
+         */
+        static volatile SideEffectAnnotation weakest = null;
 
         public static SideEffectAnnotation weakest() {
-            if (weakest == null) {
+            SideEffectAnnotation result = weakest;
+            if (result == null) {
                 for (SideEffectAnnotation sea : SideEffectAnnotation.values()) {
-                    if (weakest == null) {
-                        weakest = sea;
+                    if (result == null) {
+                        result = sea;
                     }
-                    if (sea.isWeakerThan(weakest)) {
-                        weakest = sea;
+                    if (sea.isWeakerThan(result)) {
+                        result = sea;
                     }
                 }
+                weakest = result;
             }
-            return weakest;
+            return result;
         }
     }
 
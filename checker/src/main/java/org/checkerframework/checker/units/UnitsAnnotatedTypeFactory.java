@@ -66,10 +66,18 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
      */
     private Map<String, UnitsRelations> unitsRel;
 
-    private static final Map<String, Class<? extends Annotation>> externalQualsMap =
-            new HashMap<>();
+    /**
+     * Map from canonical class name to the class of each external units qualifier that is not an
+     * alias. It is per factory, not static, because each compilation loads its own external units.
+     */
+    private final Map<String, Class<? extends Annotation>> externalQualsMap = new HashMap<>();
 
-    private static final Map<String, AnnotationMirror> aliasMap = new HashMap<>();
+    /**
+     * Map from the name of an alias annotation, such as {@code @kg}, to the base unit annotation
+     * with a prefix, such as {@code @g(Prefix.kilo)}. It is per factory, not static, because its
+     * values are annotation mirrors of one compilation.
+     */
+    private final Map<String, AnnotationMirror> aliasMap = new HashMap<>();
 
     public UnitsAnnotatedTypeFactory(BaseTypeChecker checker) {
         // use true to enable flow inference, false to disable it
@@ -0,0 +1,32 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * JUnit tests for the Nullness Checker -- testing {@code -AonlyUses} command-line argument with a
+ * comma-separated list of fully-qualified names.
+ */
+public class NullnessOnlyUsesListTest extends CheckerFrameworkPerDirectoryTest {
+
+    /**
+     * Create a NullnessOnlyUsesListTest.
+     *
+     * @param testFiles the files containing test code, which will be type-checked
+     */
+    public NullnessOnlyUsesListTest(List<File> testFiles) {
+        super(
+                testFiles,
+                org.checkerframework.checker.nullness.NullnessChecker.class,
+                "nullness",
+                "-Anomsgtext",
+                "-AonlyUses=SkipUses1.DontSkip,SkipUses2.DontSkip");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"nullness-skipuses"};
+    }
+}
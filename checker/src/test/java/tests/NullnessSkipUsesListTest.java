@@ -0,0 +1,32 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * JUnit tests for the Nullness Checker -- testing {@code -AskipUses} command-line argument with a
+ * comma-separated list of fully-qualified names.
+ */
+public class NullnessSkipUsesListTest extends CheckerFrameworkPerDirectoryTest {
+
+    /**
+     * Create a NullnessSkipUsesListTest.
+     *
+     * @param testFiles the files containing test code, which will be type-checked
+     */
+    public NullnessSkipUsesListTest(List<File> testFiles) {
+        super(
+                testFiles,
+                org.checkerframework.checker.nullness.NullnessChecker.class,
+                "nullness",
+                "-Anomsgtext",
+                "-AskipUses=SkipUses1.SkipMe,SkipUses2.SkipMe");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"nullness-skipuses"};
+    }
+}
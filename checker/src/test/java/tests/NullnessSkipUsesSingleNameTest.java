@@ -0,0 +1,32 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * JUnit tests for the Nullness Checker -- testing {@code -AskipUses} command-line argument with a
+ * list of a single fully-qualified name, which ends with a comma.
+ */
+public class NullnessSkipUsesSingleNameTest extends CheckerFrameworkPerDirectoryTest {
+
+    /**
+     * Create a NullnessSkipUsesSingleNameTest.
+     *
+     * @param testFiles the files containing test code, which will be type-checked
+     */
+    public NullnessSkipUsesSingleNameTest(List<File> testFiles) {
+        super(
+                testFiles,
+                org.checkerframework.checker.nullness.NullnessChecker.class,
+                "nullness",
+                "-Anomsgtext",
+                "-AskipUses=SkipMe,");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"nullness-skipuses-single-name"};
+    }
+}
@@ -0,0 +1,41 @@
+import org.checkerframework.checker.nullness.qual.*;
+
+// -AskipUses=SkipMe, skips the uses of class SkipMe and of its nested classes.  It does not skip
+// the uses of SkipMeToo or of Outer.SkipMe, which a regular expression SkipMe would match.
+
+class SkipMe {
+    static @Nullable Object foo() {
+        return null;
+    }
+
+    static class Nested {
+        static @Nullable Object foo() {
+            return null;
+        }
+    }
+}
+
+class SkipMeToo {
+    static @Nullable Object foo() {
+        return null;
+    }
+}
+
+class Outer {
+    static class SkipMe {
+        static @Nullable Object foo() {
+            return null;
+        }
+    }
+}
+
+public class SkipUsesSingleName {
+    void bar() {
+        @NonNull Object a = SkipMe.foo();
+        @NonNull Object b = SkipMe.Nested.foo();
+        // :: error: (assignment.type.incompatible)
+        @NonNull Object c = SkipMeToo.foo();
+        // :: error: (assignment.type.incompatible)
+        @NonNull Object d = Outer.SkipMe.foo();
+    }
+}
@@ -3,13 +3,15 @@ package org.checkerframework.dataflow.analysis;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.StringJoiner;
 import javax.lang.model.element.Element;
 import org.checkerframework.checker.interning.qual.FindDistinct;
 import org.checkerframework.checker.interning.qual.InternedDistinct;
@@ -418,47 +420,35 @@ public abstract class AbstractAnalysis<
      * @param b the block to add to {@link #worklist}
      */
     protected void addToWorklist(Block b) {
-        // TODO: use a more efficient way to check if b is already present
-        if (!worklist.contains(b)) {
-            worklist.add(b);
-        }
+        worklist.add(b);
     }
 
     /**
      * A worklist is a priority queue of blocks in which the order is given by depth-first ordering
      * to place non-loop predecessors ahead of successors.
+     *
+     * <p>The worklist is a set of positions in the depth-first order, so that adding a block,
+     * testing whether it is present and removing the next block do not need to compare blocks.
      */
     protected static class Worklist {
 
-        /** Map all blocks in the CFG to their depth-first order. */
-        protected final IdentityHashMap<Block, Integer> depthFirstOrder;
+        /** The direction of the analysis that uses this worklist. */
+        protected final Direction direction;
 
         /**
-         * Comparators to allow priority queue to order blocks by their depth-first order, using by
-         * forward analysis.
+         * The control flow graph whose blocks are added to this worklist, or null if {@link
+         * #process} has not been called yet.
          */
-        public class ForwardDFOComparator implements Comparator<Block> {
-            @SuppressWarnings("nullness:unboxing.of.nullable")
-            @Override
-            public int compare(Block b1, Block b2) {
-                return depthFirstOrder.get(b1) - depthFirstOrder.get(b2);
-            }
-        }
+        protected @Nullable ControlFlowGraph cfg;
 
         /**
-         * Comparators to allow priority queue to order blocks by their depth-first order, using by
-         * backward analysis.
+         * The blocks of the CFG, indexed by their depth-first order, as computed and cached by the
+         * CFG. Positions that do not belong to any block are null.
          */
-        public class BackwardDFOComparator implements Comparator<Block> {
-            @SuppressWarnings("nullness:unboxing.of.nullable")
-            @Override
-            public int compare(Block b1, Block b2) {
-                return depthFirstOrder.get(b2) - depthFirstOrder.get(b1);
-            }
-        }
+        protected List<@Nullable Block> blocks;
 
-        /** The backing priority queue. */
-        protected final PriorityQueue<Block> queue;
+        /** The depth-first orders of the blocks in the worklist. */
+        protected final BitSet queue;
 
         /**
          * Create a Worklist.
@@ -466,37 +456,44 @@ public abstract class AbstractAnalysis<
          * @param direction the direction (forward or backward)
          */
         public Worklist(Direction direction) {
-            depthFirstOrder = new IdentityHashMap<>();
-
-            if (direction == Direction.FORWARD) {
-                queue = new PriorityQueue<>(11, new ForwardDFOComparator());
-            } else if (direction == Direction.BACKWARD) {
-                queue = new PriorityQueue<>(11, new BackwardDFOComparator());
-            } else {
+            if (direction != Direction.FORWARD && direction != Direction.BACKWARD) {
                 throw new BugInCF("Unexpected Direction meet: " + direction.name());
             }
+            this.direction = direction;
+            blocks = Collections.emptyList();
+            queue = new BitSet();
         }
 
         /**
-         * Process the control flow graph, add the blocks to {@link #depthFirstOrder}.
+         * Process the control flow graph: use its depth-first order, which it computes only once
+         * for all analyses that run on it.
          *
          * @param cfg the control flow graph to process
          */
         public void process(ControlFlowGraph cfg) {
-            depthFirstOrder.clear();
-            int count = 1;
-            for (Block b : cfg.getDepthFirstOrderedBlocks()) {
-                depthFirstOrder.put(b, count++);
-            }
-
+            this.cfg = cfg;
+            blocks = cfg.getDepthFirstIndexedBlocks();
             queue.clear();
         }
 
         /**
-         * See {@link PriorityQueue#isEmpty}.
+         * Returns the position of the given block in the depth-first order.
          *
-         * @see PriorityQueue#isEmpty
-         * @return true if {@link #queue} is empty else false
+         * @param block a block of the control flow graph passed to {@link #process}
+         * @return the position of {@code block} in the depth-first order
+         */
+        private int indexOf(Block block) {
+            int index = cfg == null ? -1 : cfg.getDepthFirstIndex(block);
+            if (index < 0) {
+                throw new BugInCF("Block is not part of the control flow graph: " + block);
+            }
+            return index;
+        }
+
+        /**
+         * Returns true if the worklist is empty.
+         *
+         * @return true if the worklist is empty else false
          */
         @EnsuresNonNullIf(result = false, expression = "poll()")
         @SuppressWarnings("nullness:contracts.conditional.postcondition.not.satisfied") // forwarded
@@ -505,37 +502,49 @@ public abstract class AbstractAnalysis<
         }
 
         /**
-         * Check if {@link #queue} contains the block which is passed as the argument.
+         * Check if the worklist contains the block which is passed as the argument.
          *
          * @param block the given block to check
-         * @return true if {@link #queue} contains the given block
+         * @return true if the worklist contains the given block
          */
         public boolean contains(Block block) {
-            return queue.contains(block);
+            return queue.get(indexOf(block));
         }
 
         /**
-         * Add the given block to {@link #queue}.
+         * Add the given block to the worklist. If it is already present, the method does nothing.
          *
-         * @param block the block to add to {@link #queue}
+         * @param block the block to add to the worklist
          */
         public void add(Block block) {
-            queue.add(block);
+            queue.set(indexOf(block));
         }
 
         /**
-         * See {@link PriorityQueue#poll}.
+         * Removes and returns the first block of the worklist: the block with the smallest
+         * depth-first order for a forward analysis, and with the largest for a backward analysis.
          *
-         * @see PriorityQueue#poll
-         * @return the head of {@link #queue}
+         * @return the first block of the worklist, or null if it is empty
          */
         public @Nullable Block poll() {
-            return queue.poll();
+            int index =
+                    direction == Direction.FORWARD
+                            ? queue.nextSetBit(0)
+                            : queue.previousSetBit(blocks.size() - 1);
+            if (index < 0) {
+                return null;
+            }
+            queue.clear(index);
+            return blocks.get(index);
         }
 
         @Override
         public String toString() {
-            return "Worklist(" + queue + ")";
+            StringJoiner result = new StringJoiner(", ", "Worklist([", "])");
+            for (int index = queue.nextSetBit(0); index >= 0; index = queue.nextSetBit(index + 1)) {
+                result.add(String.valueOf(blocks.get(index)));
+            }
+            return result.toString();
         }
     }
 }
@@ -44,7 +44,8 @@ public class ForwardAnalysisImpl<
 
     /**
      * Number of times each block has been analyzed since the last time widening was applied. Null
-     * if maxCountBeforeWidening is -1, which implies widening isn't used for this analysis.
+     * if maxCountBeforeWidening is -1, which implies widening isn't used for this analysis. If
+     * {@link #widenOnlyAtLoopHeads} is true, only loop heads are counted.
      */
     protected final @Nullable IdentityHashMap<Block, Integer> blockCount;
 
@@ -54,6 +55,23 @@ public class ForwardAnalysisImpl<
      */
     protected final int maxCountBeforeWidening;
 
+    /**
+     * Whether to widen only at the loop heads of the control flow graph (see {@link
+     * ControlFlowGraph#isLoopHead}), instead of at every block. Every cycle of the graph contains a
+     * loop head, so the analysis terminates either way, but the results can differ: a block that
+     * is not a loop head is then never widened, so its store can stay more precise.
+     */
+    protected boolean widenOnlyAtLoopHeads = false;
+
+    /**
+     * How often {@link #runAnalysisFor} caches the transfer result of a node of a regular block: it
+     * caches the result of every {@code checkpointInterval}-th node, and of each node that a query
+     * asked for. A query resumes from the closest cached result before its node, so it applies the
+     * transfer function to fewer than {@code checkpointInterval} nodes, unless the cache was
+     * evicted. The default of 1 caches every node.
+     */
+    protected int checkpointInterval = 1;
+
     /** Then stores before every basic block (assumed to be 'no information' if not present). */
     protected final IdentityHashMap<Block, S> thenStores;
 
@@ -236,6 +254,41 @@ public class ForwardAnalysisImpl<
         return result;
     }
 
+    /**
+     * Sets how often {@link #runAnalysisFor} caches the transfer result of a node. A larger
+     * interval caches fewer stores, but makes queries apply the transfer function to more nodes.
+     *
+     * @param checkpointInterval the number of nodes between two cached transfer results; must be
+     *     positive
+     * @see #checkpointInterval
+     */
+    public void setCheckpointInterval(int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new BugInCF("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Sets whether to widen only at the loop heads of the control flow graph, instead of at every
+     * block.
+     *
+     * @param widenOnlyAtLoopHeads whether to widen only at loop heads
+     * @see #widenOnlyAtLoopHeads
+     */
+    public void setWidenOnlyAtLoopHeads(boolean widenOnlyAtLoopHeads) {
+        this.widenOnlyAtLoopHeads = widenOnlyAtLoopHeads;
+    }
+
+    /**
+     * Called by {@link #runAnalysisFor} for each query about a node of a regular block. Does
+     * nothing by default; subclasses may override it to collect statistics.
+     *
+     * @param hit true if the query was answered from a cached transfer result, without applying
+     *     the transfer function
+     */
+    protected void recordCheckpointAccess(boolean hit) {}
+
     @Override
     public S runAnalysisFor(
             @FindDistinct Node node,
@@ -269,34 +322,57 @@ public class ForwardAnalysisImpl<
             switch (block.getType()) {
                 case REGULAR_BLOCK:
                     {
-                        RegularBlock rb = (RegularBlock) block;
-                        // Apply transfer function to contents until we found the node we are
-                        // looking for.
-                        TransferInput<V, S> store = transferInput;
-                        TransferResult<V, S> transferResult;
-                        for (Node n : rb.getNodes()) {
-                            setCurrentNode(n);
-                            if (n == node && before) {
-                                return store.getRegularStore();
-                            }
-                            if (cache != null && cache.containsKey(n)) {
-                                transferResult = cache.get(n);
+                        List<Node> nodes = ((RegularBlock) block).getNodes();
+                        int target = indexOfNode(nodes, node);
+                        // The index of the last node whose transfer result is needed.
+                        int last = before ? target - 1 : target;
+
+                        // Start from the latest cached result at or before 'last', or from the
+                        // input of the block if there is none.
+                        int start = -1;
+                        TransferResult<V, S> transferResult = null;
+                        if (cache != null && last >= 0) {
+                            transferResult = cache.get(nodes.get(last));
+                            if (transferResult != null) {
+                                start = last;
                             } else {
-                                // Copy the store to avoid changing other blocks' transfer inputs in
-                                // {@link #inputs}
-                                transferResult = callTransferFunction(n, store.copy());
-                                if (cache != null) {
-                                    cache.put(n, transferResult);
+                                int interval = checkpointInterval;
+                                for (int i = (last + 1) / interval * interval - 1;
+                                        i >= 0;
+                                        i -= interval) {
+                                    transferResult = cache.get(nodes.get(i));
+                                    if (transferResult != null) {
+                                        start = i;
+                                        break;
+                                    }
                                 }
                             }
-                            if (n == node) {
-                                return transferResult.getRegularStore();
+                        }
+                        recordCheckpointAccess(start == last);
+
+                        // Apply the transfer function to the nodes after 'start' up to 'last'.
+                        TransferInput<V, S> store =
+                                transferResult == null
+                                        ? transferInput
+                                        : new TransferInput<>(
+                                                nodes.get(start), this, transferResult);
+                        for (int i = start + 1; i <= last; i++) {
+                            Node n = nodes.get(i);
+                            setCurrentNode(n);
+                            // Copy the store to avoid changing other blocks' transfer inputs in
+                            // {@link #inputs}
+                            transferResult = callTransferFunction(n, store.copy());
+                            if (cache != null
+                                    && (i == target || (i + 1) % checkpointInterval == 0)) {
+                                cache.put(n, transferResult);
                             }
                             store = new TransferInput<>(n, this, transferResult);
                         }
-                        // This point should never be reached. If the block of 'node' is
-                        // 'block', then 'node' must be part of the contents of 'block'.
-                        throw new BugInCF("This point should never be reached.");
+                        if (before) {
+                            return store.getRegularStore();
+                        }
+                        assert transferResult != null : "@AssumeAssertion(nullness): last >= 0";
+                        return transferResult.getRegularStore();
                     }
                 case EXCEPTION_BLOCK:
                     {
@@ -329,6 +405,23 @@ public class ForwardAnalysisImpl<
         }
     }
 
+    /**
+     * Returns the index of the given node in the given list, comparing nodes by identity.
+     *
+     * @param nodes the nodes of a regular block
+     * @param node a node of the block
+     * @return the index of {@code node} in {@code nodes}
+     */
+    private static int indexOfNode(List<Node> nodes, @FindDistinct Node node) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i) == node) {
+                return i;
+            }
+        }
+        // If the block of 'node' is 'block', then 'node' must be part of the contents of 'block'.
+        throw new BugInCF("Node is not part of its block: " + node);
+    }
+
     @Override
     protected void initFields(ControlFlowGraph cfg) {
         thenStores.clear();
@@ -466,7 +559,7 @@ public class ForwardAnalysisImpl<
         S thenStore = getStoreBefore(b, Store.Kind.THEN);
         S elseStore = getStoreBefore(b, Store.Kind.ELSE);
         boolean shouldWiden = false;
-        if (blockCount != null) {
+        if (blockCount != null && (!widenOnlyAtLoopHeads || (cfg != null && cfg.isLoopHead(b)))) {
             Integer count = blockCount.get(b);
             if (count == null) {
                 count = 0;
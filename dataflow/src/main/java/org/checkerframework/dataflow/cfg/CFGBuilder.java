@@ -77,6 +77,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
@@ -596,7 +597,8 @@ public class CFGBuilder {
      * internally generated unique names.
      */
     protected static class Label {
-        private static int uid = 0;
+        /** The number of the next unique label name. */
+        private static final AtomicInteger uid = new AtomicInteger(0);
 
         protected final String name;
 
@@ -619,7 +621,7 @@ public class CFGBuilder {
          * @return a new unique label name
          */
         private static String uniqueName() {
-            return "%L" + uid++;
+            return "%L" + uid.getAndIncrement();
         }
     }
 
@@ -1697,6 +1699,22 @@ public class CFGBuilder {
         /** The set of leaders (represented as indices into {@code nodeList}). */
         protected final Set<Integer> leaders;
 
+        /**
+         * The first extended node that holds each node, for the extended nodes that have been
+         * added so far, whether to {@code nodeList} or to {@link #insertedNodes}. A node can be
+         * held by several extended nodes; for example, an array access is followed by one
+         * extended node per exception that it may throw.
+         */
+        private final IdentityHashMap<Node, ExtendedNode> firstHolders;
+
+        /**
+         * Maps an extended node to the extended nodes that have been inserted after it, in the
+         * order of insertion. They are moved to {@code nodeList} at the end of phase one, so that
+         * inserting a node does not shift the rest of {@code nodeList} and renumber the bindings
+         * and leaders after it.
+         */
+        private final IdentityHashMap<ExtendedNode, List<ExtendedNode>> insertedNodes;
+
         /**
          * All return nodes (if any) encountered. Only includes return statements that actually
          * return something
@@ -1747,6 +1765,8 @@ public class CFGBuilder {
             nodeList = new ArrayList<>();
             bindings = new HashMap<>();
             leaders = new HashSet<>();
+            firstHolders = new IdentityHashMap<>();
+            insertedNodes = new IdentityHashMap<>();
 
             regularExitLabel = new Label();
             exceptionalExitLabel = new Label();
@@ -1792,6 +1812,7 @@ public class CFGBuilder {
             // just generate a degenerated control graph case that will be
             // removed in a later phase.
             nodeList.add(new UnconditionalJump(regularExitLabel));
+            moveInsertedNodesToNodeList();
 
             return new PhaseOneResult(
                     underlyingAST,
@@ -1991,48 +2012,93 @@ public class CFGBuilder {
          */
         protected void extendWithExtendedNode(ExtendedNode n) {
             nodeList.add(n);
+            addToFirstHolders(n);
         }
 
         /**
          * Insert {@code n} after the node {@code pred} in the list of extended nodes, or append
          * {@code n} if {@code pred} is not present.
          *
+         * <p>If {@code pred} is held by several extended nodes, {@code n} is inserted after the
+         * first of them. If {@code pred} is present, {@code n} is only recorded in {@link
+         * #insertedNodes}, and it is placed in {@code nodeList} at the end of phase one. Until
+         * then, the indices in {@code nodeList}, {@code bindings}, and {@code leaders} do not count
+         * the inserted nodes.
+         *
          * @param n the extended node
          * @param pred the desired predecessor
          */
-        @SuppressWarnings("ModifyCollectionInEnhancedForLoop")
         protected void insertExtendedNodeAfter(ExtendedNode n, @FindDistinct Node pred) {
-            int index = -1;
-            for (int i = 0; i < nodeList.size(); i++) {
-                ExtendedNode inList = nodeList.get(i);
-                if (inList instanceof NodeHolder || inList instanceof NodeWithExceptionsHolder) {
-                    if (inList.getNode() == pred) {
-                        index = i;
-                        break;
-                    }
-                }
-            }
-            if (index != -1) {
-                nodeList.add(index + 1, n);
-                // update bindings
-                for (Map.Entry<Label, Integer> e : bindings.entrySet()) {
-                    if (e.getValue() >= index + 1) {
-                        bindings.put(e.getKey(), e.getValue() + 1);
-                    }
-                }
-                // update leaders
-                Set<Integer> oldLeaders = new HashSet<>(leaders);
-                leaders.clear();
-                for (Integer l : oldLeaders) {
-                    if (l >= index + 1) {
-                        leaders.add(l + 1);
-                    } else {
-                        leaders.add(l);
-                    }
-                }
+            ExtendedNode predHolder = firstHolders.get(pred);
+            if (predHolder != null) {
+                insertedNodes.computeIfAbsent(predHolder, k -> new ArrayList<>(1)).add(n);
             } else {
                 nodeList.add(n);
             }
+            addToFirstHolders(n);
+        }
+
+        /**
+         * Records {@code n} in {@link #firstHolders} if it holds a node that no earlier extended
+         * node holds.
+         *
+         * @param n an extended node that has been added to the list of extended nodes
+         */
+        private void addToFirstHolders(ExtendedNode n) {
+            if (n instanceof NodeHolder || n instanceof NodeWithExceptionsHolder) {
+                firstHolders.putIfAbsent(n.getNode(), n);
+            }
+        }
+
+        /**
+         * Moves the extended nodes in {@link #insertedNodes} to their place in {@code nodeList},
+         * and renumbers {@code bindings} and {@code leaders} accordingly. A label that was bound
+         * to an index keeps referring to the same extended node.
+         *
+         * <p>A node that is inserted after {@code pred} is placed right after the first holder of
+         * {@code pred}, before the nodes that were inserted after it earlier. A node inserted after
+         * an inserted node is placed in the same way.
+         */
+        private void moveInsertedNodesToNodeList() {
+            if (insertedNodes.isEmpty()) {
+                return;
+            }
+            List<ExtendedNode> oldNodeList = new ArrayList<>(nodeList);
+            // The new index of each old index; the last element is the new size of the list.
+            int[] newIndices = new int[oldNodeList.size() + 1];
+            nodeList.clear();
+            for (int i = 0; i < oldNodeList.size(); i++) {
+                newIndices[i] = nodeList.size();
+                addWithInsertedNodes(oldNodeList.get(i));
+            }
+            newIndices[oldNodeList.size()] = nodeList.size();
+            insertedNodes.clear();
+
+            for (Map.Entry<Label, Integer> e : bindings.entrySet()) {
+                e.setValue(newIndices[e.getValue()]);
+            }
+            List<Integer> oldLeaders = new ArrayList<>(leaders);
+            leaders.clear();
+            for (Integer l : oldLeaders) {
+                leaders.add(newIndices[l]);
+            }
+        }
+
+        /**
+         * Appends {@code n} to {@code nodeList}, followed by the nodes in {@link #insertedNodes}
+         * that follow it.
+         *
+         * @param n the extended node to append
+         */
+        private void addWithInsertedNodes(ExtendedNode n) {
+            nodeList.add(n);
+            List<ExtendedNode> inserted = insertedNodes.get(n);
+            if (inserted != null) {
+                // The most recently inserted node comes first.
+                for (int i = inserted.size() - 1; i >= 0; i--) {
+                    addWithInsertedNodes(inserted.get(i));
+                }
+            }
         }
 
         /**
@@ -4714,12 +4780,33 @@ public class CFGBuilder {
          */
         private boolean hasExceptionalPath(Label target) {
             for (ExtendedNode node : nodeList) {
-                if (node instanceof NodeWithExceptionsHolder) {
-                    NodeWithExceptionsHolder exceptionalNode = (NodeWithExceptionsHolder) node;
-                    for (Set<Label> labels : exceptionalNode.getExceptions().values()) {
-                        if (labels.contains(target)) {
-                            return true;
-                        }
+                if (hasExceptionalPath(node, target)) {
+                    return true;
+                }
+            }
+            for (List<ExtendedNode> inserted : insertedNodes.values()) {
+                for (ExtendedNode node : inserted) {
+                    if (hasExceptionalPath(node, target)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns whether {@code node} is an exceptional node for {@code target}.
+         *
+         * @param node an extended node
+         * @param target label for exception
+         * @return true when {@code node} is an exceptional node for {@code target}
+         */
+        private boolean hasExceptionalPath(ExtendedNode node, Label target) {
+            if (node instanceof NodeWithExceptionsHolder) {
+                NodeWithExceptionsHolder exceptionalNode = (NodeWithExceptionsHolder) node;
+                for (Set<Label> labels : exceptionalNode.getExceptions().values()) {
+                    if (labels.contains(target)) {
+                        return true;
                     }
                 }
             }
@@ -7,6 +7,7 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.UnaryTree;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
@@ -19,6 +20,8 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.StringJoiner;
 import org.checkerframework.checker.initialization.qual.UnknownInitialization;
+import org.checkerframework.checker.nullness.qual.EnsuresNonNull;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.dataflow.analysis.AnalysisResult;
 import org.checkerframework.dataflow.cfg.block.Block;
@@ -94,6 +97,27 @@ public class ControlFlowGraph {
      */
     protected final List<LambdaExpressionTree> declaredLambdas;
 
+    /**
+     * The position of each reachable block in the depth-first order of {@link
+     * #getDepthFirstOrderedBlocks}; if a block occurs more than once in that order, its last
+     * position. Computed by {@link #computeDepthFirstOrder} the first time that an analysis needs
+     * it; the graph must not be modified afterwards.
+     */
+    private @MonotonicNonNull IdentityHashMap<Block, Integer> depthFirstIndex;
+
+    /**
+     * The blocks of this graph, indexed by their position in {@link #depthFirstIndex}. Positions
+     * that do not belong to any block are null.
+     */
+    private @MonotonicNonNull List<@Nullable Block> depthFirstIndexedBlocks;
+
+    /**
+     * The loop heads of this graph: the blocks that are the target of an edge from a block that
+     * does not come before them in the depth-first order. Every cycle of the graph contains such an
+     * edge, and thus a loop head.
+     */
+    private @MonotonicNonNull Set<Block> loopHeads;
+
     public ControlFlowGraph(
             SpecialBlock entryBlock,
             SpecialBlockImpl regularExitBlock,
@@ -240,6 +264,85 @@ public class ControlFlowGraph {
         return dfsOrderResult;
     }
 
+    /**
+     * Returns the position of the given block in the depth-first order of {@link
+     * #getDepthFirstOrderedBlocks}. If the block occurs more than once in that order, returns its
+     * last position. The order is computed once and cached, so the graph must not be modified
+     * after this method has been called.
+     *
+     * @param block a block
+     * @return the position of {@code block} in the depth-first order, or -1 if it is not reachable
+     *     from the entry block
+     */
+    public int getDepthFirstIndex(Block block) {
+        computeDepthFirstOrder();
+        Integer index = depthFirstIndex.get(block);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the blocks of this graph, indexed by {@link #getDepthFirstIndex}. The list contains
+     * null at the positions that are not the index of any block. The order is computed once and
+     * cached, so the graph must not be modified after this method has been called.
+     *
+     * @return an unmodifiable list of the blocks of this graph, indexed by their depth-first
+     *     position
+     */
+    public List<@Nullable Block> getDepthFirstIndexedBlocks() {
+        computeDepthFirstOrder();
+        return depthFirstIndexedBlocks;
+    }
+
+    /**
+     * Returns true if the given block is a loop head: the target of an edge from a block that does
+     * not come before it in the depth-first order. Every cycle of the graph contains a loop head,
+     * so an analysis that widens at loop heads terminates. The loop heads are computed once and
+     * cached, so the graph must not be modified after this method has been called.
+     *
+     * @param block a block
+     * @return true if {@code block} is a loop head
+     */
+    public boolean isLoopHead(Block block) {
+        computeDepthFirstOrder();
+        return loopHeads.contains(block);
+    }
+
+    /**
+     * Computes {@link #depthFirstIndex}, {@link #depthFirstIndexedBlocks}, and {@link #loopHeads},
+     * unless they have already been computed.
+     */
+    @EnsuresNonNull({"depthFirstIndex", "depthFirstIndexedBlocks", "loopHeads"})
+    private void computeDepthFirstOrder() {
+        if (depthFirstIndex != null && depthFirstIndexedBlocks != null && loopHeads != null) {
+            return;
+        }
+        List<Block> depthFirstOrderedBlocks = getDepthFirstOrderedBlocks();
+        IdentityHashMap<Block, Integer> index = new IdentityHashMap<>();
+        @Nullable Block[] blocks = new Block[depthFirstOrderedBlocks.size()];
+        int count = 0;
+        for (Block b : depthFirstOrderedBlocks) {
+            Integer previous = index.put(b, count);
+            if (previous != null) {
+                blocks[previous] = null;
+            }
+            blocks[count++] = b;
+        }
+
+        Set<Block> heads = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<Block, Integer> entry : index.entrySet()) {
+            for (Block successor : entry.getKey().getSuccessors()) {
+                Integer successorIndex = index.get(successor);
+                if (successorIndex != null && successorIndex <= entry.getValue()) {
+                    heads.add(successor);
+                }
+            }
+        }
+
+        depthFirstIndex = index;
+        depthFirstIndexedBlocks = Collections.unmodifiableList(Arrays.asList(blocks));
+        loopHeads = heads;
+    }
+
     /**
      * Returns the copied tree-lookup map. Ignores convertedTreeLookup, though {@link
      * #getNodesCorrespondingToTree} uses that field.
@@ -3,6 +3,7 @@ package org.checkerframework.dataflow.cfg.block;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /** Base class of the {@link Block} implementation hierarchy. */
 public abstract class BlockImpl implements Block {
@@ -10,8 +11,11 @@ public abstract class BlockImpl implements Block {
     /** A unique ID for this block. */
     protected final long id = BlockImpl.uniqueID();
 
-    /** The last ID that has already been used. */
-    protected static long lastId = 0;
+    /**
+     * The next ID to use. It is atomic because control flow graphs may be built concurrently in
+     * one JVM, and the IDs of blocks are compared to test whether two blocks are the same.
+     */
+    private static final AtomicLong nextId = new AtomicLong(0);
 
     /** The type of this basic block. */
     protected final BlockType type;
@@ -25,7 +29,7 @@ public abstract class BlockImpl implements Block {
      * @return a fresh identifier
      */
     private static long uniqueID() {
-        return lastId++;
+        return nextId.getAndIncrement();
     }
 
     protected BlockImpl(BlockType type) {
@@ -0,0 +1,73 @@
+package widening;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.analysis.AbstractValue;
+
+/**
+ * An upper bound of an integer expression. The expression may have no upper bound, which is
+ * represented by {@link #UNBOUNDED}, not by null: the analysis ignores a null value and keeps the
+ * previous value of the expression.
+ */
+public class UpperBound implements AbstractValue<UpperBound> {
+
+    /** The value of an expression that has no known upper bound. */
+    public static final UpperBound UNBOUNDED = new UpperBound(Long.MAX_VALUE);
+
+    /** The upper bound. */
+    protected final long bound;
+
+    /**
+     * Creates an upper bound.
+     *
+     * @param bound the upper bound
+     */
+    public UpperBound(long bound) {
+        this.bound = bound;
+    }
+
+    /**
+     * Returns the upper bound.
+     *
+     * @return the upper bound
+     */
+    public long getBound() {
+        return bound;
+    }
+
+    /**
+     * Returns the upper bound of the sum of two expressions.
+     *
+     * @param other the upper bound of the other expression
+     * @return the upper bound of the sum
+     */
+    public UpperBound plus(UpperBound other) {
+        if (this.equals(UNBOUNDED) || other.equals(UNBOUNDED)) {
+            return UNBOUNDED;
+        }
+        try {
+            return new UpperBound(Math.addExact(bound, other.bound));
+        } catch (ArithmeticException e) {
+            return UNBOUNDED;
+        }
+    }
+
+    @Override
+    public UpperBound leastUpperBound(UpperBound other) {
+        return bound >= other.bound ? this : other;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bound);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        return obj instanceof UpperBound && ((UpperBound) obj).bound == bound;
+    }
+
+    @Override
+    public String toString() {
+        return bound == Long.MAX_VALUE ? "unbounded" : Long.toString(bound);
+    }
+}
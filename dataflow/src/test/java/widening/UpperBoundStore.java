@@ -0,0 +1,116 @@
+package widening;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.analysis.FlowExpressions;
+import org.checkerframework.dataflow.analysis.Store;
+import org.checkerframework.dataflow.cfg.CFGVisualizer;
+
+/**
+ * A store that maps local variables to an upper bound of their value. A variable that is not in
+ * the store has no known upper bound. The lattice has infinite ascending chains, so an analysis
+ * that uses this store terminates only if it widens.
+ */
+public class UpperBoundStore implements Store<UpperBoundStore> {
+
+    /** The upper bounds of the local variables, by variable name. */
+    protected final Map<String, Long> bounds;
+
+    /** Creates a store in which no variable has a known upper bound. */
+    public UpperBoundStore() {
+        this(new TreeMap<>());
+    }
+
+    /**
+     * Creates a store with the given upper bounds.
+     *
+     * @param bounds the upper bounds of the local variables, by variable name
+     */
+    protected UpperBoundStore(Map<String, Long> bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * Returns the upper bound of a local variable.
+     *
+     * @param name the name of a local variable
+     * @return the upper bound of the variable
+     */
+    public UpperBound getBound(String name) {
+        Long bound = bounds.get(name);
+        return bound == null ? UpperBound.UNBOUNDED : new UpperBound(bound);
+    }
+
+    /**
+     * Sets the upper bound of a local variable.
+     *
+     * @param name the name of a local variable
+     * @param bound the upper bound of the variable
+     */
+    public void setBound(String name, UpperBound bound) {
+        if (bound.equals(UpperBound.UNBOUNDED)) {
+            bounds.remove(name);
+        } else {
+            bounds.put(name, bound.getBound());
+        }
+    }
+
+    @Override
+    public UpperBoundStore copy() {
+        return new UpperBoundStore(new TreeMap<>(bounds));
+    }
+
+    @Override
+    public UpperBoundStore leastUpperBound(UpperBoundStore other) {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : bounds.entrySet()) {
+            Long otherBound = other.bounds.get(entry.getKey());
+            if (otherBound != null) {
+                result.put(entry.getKey(), Math.max(entry.getValue(), otherBound));
+            }
+        }
+        return new UpperBoundStore(result);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>A variable keeps its upper bound only if both stores have the same upper bound for it.
+     */
+    @Override
+    public UpperBoundStore widenedUpperBound(UpperBoundStore previous) {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : bounds.entrySet()) {
+            if (entry.getValue().equals(previous.bounds.get(entry.getKey()))) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return new UpperBoundStore(result);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        return o instanceof UpperBoundStore && bounds.equals(((UpperBoundStore) o).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return bounds.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return bounds.toString();
+    }
+
+    @Override
+    public boolean canAlias(FlowExpressions.Receiver a, FlowExpressions.Receiver b) {
+        return true;
+    }
+
+    @Override
+    public String visualize(CFGVisualizer<?, UpperBoundStore, ?> viz) {
+        return viz.visualizeStoreKeyVal("upper bounds", bounds);
+    }
+}
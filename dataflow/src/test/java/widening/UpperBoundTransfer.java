@@ -0,0 +1,103 @@
+package widening;
+
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.analysis.ForwardTransferFunction;
+import org.checkerframework.dataflow.analysis.RegularTransferResult;
+import org.checkerframework.dataflow.analysis.TransferInput;
+import org.checkerframework.dataflow.analysis.TransferResult;
+import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.dataflow.cfg.node.AbstractNodeVisitor;
+import org.checkerframework.dataflow.cfg.node.AssignmentNode;
+import org.checkerframework.dataflow.cfg.node.IntegerLiteralNode;
+import org.checkerframework.dataflow.cfg.node.LocalVariableNode;
+import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.dataflow.cfg.node.NumericalAdditionNode;
+import org.checkerframework.javacutil.BugInCF;
+
+/**
+ * The transfer function of the upper-bound analysis: it tracks integer literals, local
+ * variables, additions, and assignments to local variables. It gives up after {@link
+ * #MAX_TRANSFERS} applications, so that an analysis that does not terminate fails instead of
+ * running forever.
+ */
+public class UpperBoundTransfer
+        extends AbstractNodeVisitor<
+                TransferResult<UpperBound, UpperBoundStore>,
+                TransferInput<UpperBound, UpperBoundStore>>
+        implements ForwardTransferFunction<UpperBound, UpperBoundStore> {
+
+    /** The number of applications of the transfer function after which the analysis fails. */
+    public static final int MAX_TRANSFERS = 100_000;
+
+    /** The number of applications of the transfer function so far. */
+    private int transfers = 0;
+
+    @Override
+    public UpperBoundStore initialStore(
+            UnderlyingAST underlyingAST, @Nullable List<LocalVariableNode> parameters) {
+        return new UpperBoundStore();
+    }
+
+    /**
+     * Returns the result of applying the transfer function to a node.
+     *
+     * @param value the value of the node, or null if the node is not an integer expression
+     * @param store the store after the node
+     * @return the transfer result
+     */
+    private TransferResult<UpperBound, UpperBoundStore> result(
+            @Nullable UpperBound value, UpperBoundStore store) {
+        transfers++;
+        if (transfers > MAX_TRANSFERS) {
+            throw new BugInCF(
+                    "The analysis did not terminate after " + MAX_TRANSFERS + " transfers");
+        }
+        return new RegularTransferResult<>(value, store);
+    }
+
+    @Override
+    public TransferResult<UpperBound, UpperBoundStore> visitNode(
+            Node n, TransferInput<UpperBound, UpperBoundStore> in) {
+        return result(null, in.getRegularStore());
+    }
+
+    @Override
+    public TransferResult<UpperBound, UpperBoundStore> visitIntegerLiteral(
+            IntegerLiteralNode n, TransferInput<UpperBound, UpperBoundStore> in) {
+        return result(new UpperBound(n.getValue()), in.getRegularStore());
+    }
+
+    @Override
+    public TransferResult<UpperBound, UpperBoundStore> visitLocalVariable(
+            LocalVariableNode n, TransferInput<UpperBound, UpperBoundStore> in) {
+        UpperBoundStore store = in.getRegularStore();
+        return result(store.getBound(n.getName()), store);
+    }
+
+    @Override
+    public TransferResult<UpperBound, UpperBoundStore> visitNumericalAddition(
+            NumericalAdditionNode n, TransferInput<UpperBound, UpperBoundStore> in) {
+        UpperBound left = in.getValueOfSubNode(n.getLeftOperand());
+        UpperBound right = in.getValueOfSubNode(n.getRightOperand());
+        UpperBound sum = UpperBound.UNBOUNDED;
+        if (left != null && right != null) {
+            sum = left.plus(right);
+        }
+        return result(sum, in.getRegularStore());
+    }
+
+    @Override
+    public TransferResult<UpperBound, UpperBoundStore> visitAssignment(
+            AssignmentNode n, TransferInput<UpperBound, UpperBoundStore> in) {
+        UpperBoundStore store = in.getRegularStore();
+        UpperBound value = in.getValueOfSubNode(n.getExpression());
+        if (value == null) {
+            value = UpperBound.UNBOUNDED;
+        }
+        if (n.getTarget() instanceof LocalVariableNode) {
+            store.setBound(((LocalVariableNode) n.getTarget()).getName(), value);
+        }
+        return result(value, store);
+    }
+}
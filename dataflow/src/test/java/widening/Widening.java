@@ -0,0 +1,207 @@
+package widening;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.analysis.ForwardAnalysisImpl;
+import org.checkerframework.dataflow.cfg.CFGVisualizeLauncher;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.ConditionalBlockImpl;
+import org.checkerframework.dataflow.cfg.block.RegularBlockImpl;
+import org.checkerframework.dataflow.cfg.block.SpecialBlock.SpecialBlockType;
+import org.checkerframework.dataflow.cfg.block.SpecialBlockImpl;
+import org.checkerframework.dataflow.cfg.node.AssignmentNode;
+import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.javacutil.BugInCF;
+
+/**
+ * Used in wideningTest Gradle task to test widening in {@link ForwardAnalysisImpl}. The test
+ * runs an analysis whose lattice has infinite ascending chains, once widening at every block and
+ * once widening only at loop heads, on nested loops and on an irreducible loop. It checks that
+ * both analyses terminate and that every cycle of each graph contains a loop head, and writes the
+ * store at the regular exit of each method.
+ */
+public class Widening {
+
+    /** The number of times a block can be analyzed before widening. */
+    private static final int MAX_COUNT_BEFORE_WIDENING = 3;
+
+    /** The methods of Test.java whose control flow graph is used as is. */
+    private static final String[] METHODS = {
+        "nested", "labeledContinue", "doWhile", "tryFinally", "bounded", "mergeInLoop"
+    };
+
+    /** An analysis that computes upper bounds of local variables. */
+    private static class UpperBoundAnalysis
+            extends ForwardAnalysisImpl<UpperBound, UpperBoundStore, UpperBoundTransfer> {
+
+        /**
+         * Creates an upper-bound analysis.
+         *
+         * @param widenOnlyAtLoopHeads whether to widen only at loop heads
+         */
+        UpperBoundAnalysis(boolean widenOnlyAtLoopHeads) {
+            super(MAX_COUNT_BEFORE_WIDENING);
+            this.transferFunction = new UpperBoundTransfer();
+            setWidenOnlyAtLoopHeads(widenOnlyAtLoopHeads);
+        }
+    }
+
+    /** Makes the protected {@link CFGVisualizeLauncher#generateMethodCFG} available. */
+    private static class Launcher extends CFGVisualizeLauncher {
+        @Override
+        protected ControlFlowGraph generateMethodCFG(String file, String clas, String method) {
+            return super.generateMethodCFG(file, clas, method);
+        }
+    }
+
+    /**
+     * The main method expects to be run in dataflow/tests/widening directory.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        Launcher launcher = new Launcher();
+        StringBuilder result = new StringBuilder();
+        for (String method : METHODS) {
+            analyze(method, launcher.generateMethodCFG("Test.java", "Test", method), result);
+        }
+        analyze(
+                "irreducible",
+                irreducible(launcher.generateMethodCFG("Test.java", "Test", "irreducible")),
+                result);
+        try (FileWriter out = new FileWriter("Out.txt")) {
+            out.write(result.toString());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Analyzes a control flow graph in both widening modes and appends the stores at its regular
+     * exit to {@code result}.
+     *
+     * @param name the name of the control flow graph
+     * @param cfg the control flow graph
+     * @param result where to append the output
+     */
+    private static void analyze(String name, ControlFlowGraph cfg, StringBuilder result) {
+        checkLoopHeads(name, cfg);
+        result.append(name).append(":\n");
+        for (boolean widenOnlyAtLoopHeads : new boolean[] {false, true}) {
+            UpperBoundAnalysis analysis = new UpperBoundAnalysis(widenOnlyAtLoopHeads);
+            analysis.performAnalysis(cfg);
+            result.append(widenOnlyAtLoopHeads ? "  loop heads:   " : "  every block:  ")
+                    .append(analysis.getRegularExitStore())
+                    .append("\n");
+        }
+    }
+
+    /**
+     * Checks that every cycle of a control flow graph contains a loop head.
+     *
+     * @param name the name of the control flow graph
+     * @param cfg the control flow graph
+     */
+    private static void checkLoopHeads(String name, ControlFlowGraph cfg) {
+        Map<Block, Boolean> onStack = new IdentityHashMap<>();
+        for (Block b : cfg.getAllBlocks()) {
+            if (!cfg.isLoopHead(b) && hasCycle(cfg, b, onStack)) {
+                throw new BugInCF(name + " has a cycle without a loop head through " + b);
+            }
+        }
+    }
+
+    /**
+     * Returns true if a cycle without a loop head is reachable from a block that is not a loop
+     * head.
+     *
+     * @param cfg the control flow graph
+     * @param b a block of {@code cfg} that is not a loop head
+     * @param onStack maps each block that has been visited to whether it is on the current path
+     * @return true if a cycle without a loop head is reachable from {@code b}
+     */
+    private static boolean hasCycle(ControlFlowGraph cfg, Block b, Map<Block, Boolean> onStack) {
+        Boolean visiting = onStack.get(b);
+        if (visiting != null) {
+            return visiting;
+        }
+        onStack.put(b, true);
+        for (Block succ : b.getSuccessors()) {
+            if (!cfg.isLoopHead(succ) && hasCycle(cfg, succ, onStack)) {
+                return true;
+            }
+        }
+        onStack.put(b, false);
+        return false;
+    }
+
+    /**
+     * Returns an irreducible control flow graph made of the nodes of a straight-line method whose
+     * statements are three assignments {@code x = 0; x = x + 1; x = x + 2;}. The graph is
+     *
+     * <pre>
+     * entry -&gt; E -&gt; C1;  C1 -&gt; A, B;  A -&gt; B -&gt; C2;  C2 -&gt; A, exit
+     * </pre>
+     *
+     * where E, A, and B hold the nodes of the first, second, and third statement. The loop {A, B}
+     * can be entered at A and at B, so neither block dominates the other.
+     *
+     * @param cfg the control flow graph of the straight-line method
+     * @return the irreducible control flow graph
+     */
+    private static ControlFlowGraph irreducible(ControlFlowGraph cfg) {
+        List<Node> nodes = new ArrayList<>();
+        for (@Nullable Block b : cfg.getDepthFirstIndexedBlocks()) {
+            if (b != null) {
+                nodes.addAll(b.getNodes());
+            }
+        }
+        List<RegularBlockImpl> statements = new ArrayList<>();
+        RegularBlockImpl current = new RegularBlockImpl();
+        for (Node n : nodes) {
+            current.addNode(n);
+            if (n instanceof AssignmentNode) {
+                statements.add(current);
+                current = new RegularBlockImpl();
+            }
+        }
+        if (statements.size() != 3) {
+            throw new BugInCF("Expected 3 statements, found " + statements.size());
+        }
+        RegularBlockImpl e = statements.get(0);
+        RegularBlockImpl a = statements.get(1);
+        RegularBlockImpl b = statements.get(2);
+
+        SpecialBlockImpl entry = new SpecialBlockImpl(SpecialBlockType.ENTRY);
+        SpecialBlockImpl regularExit = new SpecialBlockImpl(SpecialBlockType.EXIT);
+        SpecialBlockImpl exceptionalExit = new SpecialBlockImpl(SpecialBlockType.EXCEPTIONAL_EXIT);
+        ConditionalBlockImpl c1 = new ConditionalBlockImpl();
+        ConditionalBlockImpl c2 = new ConditionalBlockImpl();
+        entry.setSuccessor(e);
+        e.setSuccessor(c1);
+        c1.setThenSuccessor(a);
+        c1.setElseSuccessor(b);
+        a.setSuccessor(b);
+        b.setSuccessor(c2);
+        c2.setThenSuccessor(a);
+        c2.setElseSuccessor(regularExit);
+        return new ControlFlowGraph(
+                entry,
+                regularExit,
+                exceptionalExit,
+                cfg.getUnderlyingAST(),
+                new IdentityHashMap<>(),
+                new IdentityHashMap<>(),
+                new IdentityHashMap<>(),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList());
+    }
+}
@@ -0,0 +1,73 @@
+public class Test {
+    public void nested(boolean b) {
+        int i = 0;
+        while (b) {
+            int j = 0;
+            while (b) {
+                j = j + 1;
+            }
+            i = i + j;
+        }
+    }
+
+    public void labeledContinue(boolean b) {
+        int i = 0;
+        outer:
+        while (b) {
+            int j = 0;
+            while (b) {
+                j = j + 1;
+                if (b) {
+                    continue outer;
+                }
+                i = i + 2;
+            }
+        }
+    }
+
+    public void doWhile(boolean b) {
+        int i = 0;
+        do {
+            i = i + 1;
+        } while (b);
+    }
+
+    public void tryFinally(boolean b) {
+        int i = 0;
+        while (b) {
+            try {
+                i = i + 1;
+            } finally {
+                i = i + 2;
+            }
+        }
+    }
+
+    public void bounded(boolean b) {
+        int i = 0;
+        while (b) {
+            i = 5;
+        }
+    }
+
+    public void mergeInLoop(boolean b) {
+        int a = 0;
+        int c = 0;
+        int d = 0;
+        while (b) {
+            if (b) {
+                d = 1;
+            } else {
+                d = 2;
+            }
+            a = c;
+            c = d;
+        }
+    }
+
+    public void irreducible() {
+        int x = 0;
+        x = x + 1;
+        x = x + 2;
+    }
+}
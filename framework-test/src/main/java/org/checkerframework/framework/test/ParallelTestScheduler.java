@@ -0,0 +1,94 @@
+package org.checkerframework.framework.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.javacutil.BugInCF;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * Runs the tests of a {@link PerDirectorySuite} or {@link PerFileSuite} concurrently, when the
+ * {@code tests.parallelism} system property is greater than 1 (see {@link
+ * TestUtilities#getParallelism()}). Each test directory or file is type-checked by a separate
+ * compilation. The diagnostics of a test are collected and compared to its expected diagnostics
+ * within its own compilation, so the result of every test is the same as when the tests run one
+ * after the other; only the order in which results are reported changes.
+ *
+ * <p>Tests in different directories often declare classes with the same names. So that concurrent
+ * compilations do not write the same class files, each thread writes the class files of its tests
+ * to its own subdirectory of the default output directory (see {@link TypecheckExecutor}), which
+ * also replaces the default output directory in the classpath of those tests. A test that passes
+ * its own {@code -d} option must not share that directory with another test.
+ *
+ * <p>The threads are shared by all suites of a JVM. As they live until the JVM exits, each keeps
+ * its file manager (see {@link TypecheckExecutor}) from one suite to the next.
+ */
+final class ParallelTestScheduler implements RunnerScheduler {
+
+    /** The threads that run the tests of all suites, created on first use. */
+    private static @MonotonicNonNull ExecutorService executor;
+
+    /** The tests of the suite that have been scheduled so far. */
+    private final List<Future<?>> tests = new ArrayList<>();
+
+    /** Creates a scheduler. Use {@link #configure} instead. */
+    private ParallelTestScheduler() {}
+
+    /**
+     * Makes the given suite run its tests concurrently, if the {@code tests.parallelism} system
+     * property is greater than 1. Otherwise, the suite runs its tests one after the other, as
+     * usual.
+     *
+     * @param suite a test suite
+     */
+    static void configure(ParentRunner<?> suite) {
+        if (TestUtilities.getParallelism() > 1) {
+            suite.setScheduler(new ParallelTestScheduler());
+        }
+    }
+
+    /**
+     * Returns the threads that run the tests, creating them if necessary.
+     *
+     * @return the threads that run the tests
+     */
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor =
+                    Executors.newFixedThreadPool(
+                            TestUtilities.getParallelism(),
+                            runnable -> {
+                                Thread thread = new Thread(runnable, "checker-framework-test");
+                                // Do not keep the JVM alive after the last suite.
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+        }
+        return executor;
+    }
+
+    @Override
+    public void schedule(Runnable childStatement) {
+        tests.add(getExecutor().submit(childStatement));
+    }
+
+    @Override
+    public void finished() {
+        for (Future<?> test : tests) {
+            try {
+                test.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BugInCF("ParallelTestScheduler: interrupted while running tests", e);
+            } catch (ExecutionException e) {
+                // A test that fails is reported to JUnit by its runner; this is a failure of JUnit.
+                throw new BugInCF("ParallelTestScheduler: a test could not be run", e);
+            }
+        }
+    }
+}
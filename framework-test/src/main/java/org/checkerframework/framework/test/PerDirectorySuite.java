@@ -33,6 +33,9 @@ import org.junit.runners.model.TestClass;
  * method must return either a {@code List<File>} where each element of the list is a Java file to
  * test against OR a {@code String []} where each String in the array is a directory in the tests
  * directory.
+ *
+ * <p>The directories are type-checked concurrently if the {@code tests.parallelism} system
+ * property is greater than 1; see {@link ParallelTestScheduler}.
  */
 public class PerDirectorySuite extends Suite {
 
@@ -62,6 +65,8 @@ public class PerDirectorySuite extends Suite {
         for (List<File> parameters : parametersList) {
             runners.add(new PerParameterSetTestRunner(javaTestClass, parameters));
         }
+
+        ParallelTestScheduler.configure(this);
     }
 
     /** Returns a list of one-element arrays, each containing a Java File. */
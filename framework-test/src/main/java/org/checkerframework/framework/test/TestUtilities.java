@@ -27,6 +27,7 @@ import javax.tools.JavaFileObject;
 import javax.tools.ToolProvider;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.SystemUtil;
 import org.junit.Assert;
 import org.plumelib.util.UtilPlume;
@@ -474,4 +475,26 @@ public class TestUtilities {
     public static boolean getShouldEmitDebugInfo() {
         return SystemUtil.getBooleanSystemProperty("emit.test.debug");
     }
+
+    /**
+     * Returns the value of system property "tests.parallelism": the number of test directories or
+     * test files that a test suite type-checks concurrently.
+     *
+     * @return the value of system property "tests.parallelism", or 1 if it is not set
+     */
+    public static int getParallelism() {
+        String parallelism = System.getProperty("tests.parallelism");
+        if (parallelism == null || parallelism.isEmpty()) {
+            return 1;
+        }
+        try {
+            int result = Integer.parseInt(parallelism);
+            if (result >= 1) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw new BugInCF("tests.parallelism must be a positive integer, found: " + parallelism);
+    }
 }
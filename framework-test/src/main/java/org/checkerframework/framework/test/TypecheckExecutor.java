@@ -1,22 +1,90 @@
 package org.checkerframework.framework.test;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
 import javax.tools.ToolProvider;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.test.diagnostics.JavaDiagnosticReader;
 import org.checkerframework.framework.test.diagnostics.TestDiagnostic;
+import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.SystemUtil;
 import org.plumelib.util.UtilPlume;
 
 /** Used by the Checker Framework test suite to run the framework and generate a test result. */
 public class TypecheckExecutor {
 
+    /**
+     * The file manager of each thread that runs tests. Every test of a thread uses the same file
+     * manager, which keeps the jar files of the classpath open and indexed between tests, instead
+     * of reading them again for every test. A file manager is not thread-safe, so tests that run
+     * concurrently (see {@link ParallelTestScheduler}) use different file managers.
+     */
+    private static final ThreadLocal<StandardJavaFileManager> fileManagers =
+            ThreadLocal.withInitial(
+                    () ->
+                            ToolProvider.getSystemJavaCompiler()
+                                    .getStandardFileManager(null, null, null));
+
+    /**
+     * The locations of a file manager that the options in {@link #locationOptions} set. They are
+     * reset before every test that uses the file manager of its thread, so that a test does not see
+     * the paths of the previous test of its thread.
+     */
+    private static final List<StandardLocation> optionLocations =
+            Arrays.asList(
+                    StandardLocation.CLASS_OUTPUT,
+                    StandardLocation.SOURCE_OUTPUT,
+                    StandardLocation.CLASS_PATH,
+                    StandardLocation.SOURCE_PATH,
+                    StandardLocation.ANNOTATION_PROCESSOR_PATH);
+
+    /**
+     * The file manager options whose effect is undone by resetting {@link #optionLocations}. A test
+     * that passes any other file manager option, such as {@code -encoding}, {@code --module-path},
+     * or {@code --system}, gets a new file manager instead of the file manager of its thread.
+     */
+    private static final List<String> locationOptions =
+            Arrays.asList(
+                    "-d",
+                    "-s",
+                    "-classpath",
+                    "-cp",
+                    "--class-path",
+                    "-sourcepath",
+                    "--source-path",
+                    "-processorpath",
+                    "--processor-path");
+
+    /**
+     * The options that set the classpath. When a test writes its class files to the subdirectory
+     * of its thread (see {@link #outputDirectory}), the default output directory in its classpath
+     * is replaced by that subdirectory, so that a test can still read the class files that an
+     * earlier compilation of the same test wrote.
+     */
+    private static final List<String> classpathOptions =
+            Arrays.asList("-classpath", "-cp", "--class-path");
+
+    /** The index of the next thread that runs tests, used by {@link #threadIndexes}. */
+    private static final AtomicInteger nextThreadIndex = new AtomicInteger();
+
+    /**
+     * The index of each thread that runs tests. When tests run concurrently, each thread writes its
+     * class files to its own subdirectory of the default output directory; see {@link
+     * #outputDirectory}.
+     */
+    private static final ThreadLocal<Integer> threadIndexes =
+            ThreadLocal.withInitial(nextThreadIndex::getAndIncrement);
+
     public TypecheckExecutor() {}
 
     /** Runs a typechecking test using the given configuration and returns the test result. */
@@ -34,13 +102,26 @@ public class TypecheckExecutor {
         if (dOption == null) {
             throw new Error("-d not supplied");
         }
-        TestUtilities.ensureDirectoryExists(dOption);
+        String outputDirectory = outputDirectory(dOption);
+        TestUtilities.ensureDirectoryExists(outputDirectory);
 
         final StringWriter javacOutput = new StringWriter();
         DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
 
         JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        StandardJavaFileManager fileManager = fileManagers.get();
+        boolean ownFileManager = needsOwnFileManager(configuration, fileManager);
+        if (ownFileManager) {
+            fileManager = compiler.getStandardFileManager(null, null, null);
+        } else {
+            try {
+                for (StandardLocation location : optionLocations) {
+                    fileManager.setLocation(location, null);
+                }
+            } catch (IOException e) {
+                throw new BugInCF("TypecheckExecutor: cannot reset the file manager", e);
+            }
+        }
         Iterable<? extends JavaFileObject> javaFiles =
                 fileManager.getJavaFileObjects(
                         configuration.getTestSourceFiles().toArray(new File[] {}));
@@ -61,10 +142,19 @@ public class TypecheckExecutor {
         }
 
         List<String> nonJvmOptions = new ArrayList<>();
+        @Nullable String previousOption = null;
         for (String option : configuration.getFlatOptions()) {
+            if (!outputDirectory.equals(dOption)) {
+                if ("-d".equals(previousOption)) {
+                    option = outputDirectory;
+                } else if (classpathOptions.contains(previousOption)) {
+                    option = replaceDirectory(option, dOption, outputDirectory);
+                }
+            }
             if (!option.startsWith("-J-")) {
                 nonJvmOptions.add(option);
             }
+            previousOption = option;
         }
         nonJvmOptions.add("-Xmaxerrs");
         nonJvmOptions.add("100000");
@@ -101,7 +191,18 @@ public class TypecheckExecutor {
          * expected/unexpected messages, but not the std out/err messages from
          * that particular test. Can we improve this somehow?
          */
-        final Boolean compiledWithoutError = task.call();
+        final Boolean compiledWithoutError;
+        try {
+            compiledWithoutError = task.call();
+        } finally {
+            if (ownFileManager) {
+                try {
+                    fileManager.close();
+                } catch (IOException e) {
+                    throw new BugInCF("TypecheckExecutor: cannot close the file manager", e);
+                }
+            }
+        }
         javacOutput.flush();
         return new CompilationResult(
                 compiledWithoutError,
@@ -110,6 +211,70 @@ public class TypecheckExecutor {
                 diagnostics.getDiagnostics());
     }
 
+    /**
+     * Returns the directory to which a test writes its class files. When tests run concurrently
+     * (see {@link ParallelTestScheduler}), a test whose {@code -d} option is the default output
+     * directory writes to a subdirectory named after the index of its thread instead. Different
+     * tests declare classes with the same names, such as {@code Test} or {@code A}, and two
+     * compilations that write the same class file at the same time may fail.
+     *
+     * @param dOption the value of the {@code -d} option of a test
+     * @return the directory to which the test writes its class files
+     */
+    private static String outputDirectory(String dOption) {
+        if (TestUtilities.getParallelism() <= 1) {
+            return dOption;
+        }
+        File defaultDirectory = TestConfigurationBuilder.getOutputDirFromProperty();
+        if (!new File(dOption).getAbsoluteFile().equals(defaultDirectory.getAbsoluteFile())) {
+            return dOption;
+        }
+        return new File(dOption, threadIndexes.get().toString()).getPath();
+    }
+
+    /**
+     * Replaces a directory in a path.
+     *
+     * @param path a list of files and directories, separated by {@link File#pathSeparator}
+     * @param directory the directory to replace
+     * @param replacement the directory that replaces {@code directory}
+     * @return {@code path}, with every entry that denotes {@code directory} replaced by {@code
+     *     replacement}
+     */
+    private static String replaceDirectory(String path, String directory, String replacement) {
+        File directoryFile = new File(directory).getAbsoluteFile();
+        List<String> result = new ArrayList<>();
+        for (String entry : path.split(File.pathSeparator, -1)) {
+            boolean isDirectory =
+                    !entry.isEmpty() && new File(entry).getAbsoluteFile().equals(directoryFile);
+            result.add(isDirectory ? replacement : entry);
+        }
+        return String.join(File.pathSeparator, result);
+    }
+
+    /**
+     * Returns true if a test needs a new file manager, because it passes a file manager option
+     * whose effect resetting {@link #optionLocations} does not undo.
+     *
+     * @param configuration the configuration of a test
+     * @param fileManager a file manager, used to recognize file manager options
+     * @return true if the test should not use the file manager of its thread
+     */
+    private static boolean needsOwnFileManager(
+            TestConfiguration configuration, StandardJavaFileManager fileManager) {
+        for (String option : configuration.getOptions().keySet()) {
+            if (locationOptions.contains(option)) {
+                continue;
+            }
+            // --release sets the platform classes of the file manager, but it is not a file
+            // manager option.
+            if (option.equals("--release") || fileManager.isSupportedOption(option) != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Reads the expected diagnostics for the given configuration and creates a TypecheckResult
      * which contains all of the missing and expected diagnostics
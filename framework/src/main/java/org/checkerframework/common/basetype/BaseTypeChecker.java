@@ -32,6 +32,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signature.qual.ClassGetName;
 import org.checkerframework.common.reflection.MethodValChecker;
 import org.checkerframework.dataflow.cfg.CFGVisualizer;
+import org.checkerframework.framework.flow.CFGCache;
 import org.checkerframework.framework.qual.SubtypeOf;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
@@ -144,6 +145,12 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
      */
     private TreePathCacher treePathCacher = null;
 
+    /**
+     * The control flow graphs shared by all checkers of a compound checker, or null if this
+     * checker neither has subcheckers nor is a subchecker. Initialized in instantiateSubcheckers.
+     */
+    private @Nullable CFGCache cfgCache = null;
+
     @Override
     protected void setRoot(CompilationUnitTree newRoot) {
         super.setRoot(newRoot);
@@ -413,6 +420,9 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
 
         ArrayList<BaseTypeChecker> immediateSubcheckers =
                 new ArrayList<>(classesOfImmediateSubcheckers.size());
+        if (cfgCache == null) {
+            cfgCache = new CFGCache();
+        }
 
         for (Class<? extends BaseTypeChecker> subcheckerClass : classesOfImmediateSubcheckers) {
             BaseTypeChecker subchecker = alreadyInitializedSubcheckerMap.get(subcheckerClass);
@@ -432,6 +442,7 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
 
             instance.setProcessingEnvironment(this.processingEnv);
             instance.treePathCacher = this.getTreePathCacher();
+            instance.cfgCache = this.cfgCache;
             // Prevent the new checker from storing non-immediate subcheckers
             instance.subcheckers = Collections.emptyList();
             immediateSubcheckers.add(instance);
@@ -474,6 +485,17 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
         return treePathCacher;
     }
 
+    /**
+     * Returns the control flow graphs shared by all checkers of the compound checker that this
+     * checker belongs to.
+     *
+     * @return the shared control flow graphs, or null if this checker neither has subcheckers nor
+     *     is a subchecker
+     */
+    public @Nullable CFGCache getCFGCache() {
+        return cfgCache;
+    }
+
     // AbstractTypeProcessor delegation
     @Override
     public void typeProcess(TypeElement element, TreePath tree) {
@@ -125,12 +125,11 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     /** Helper class that holds references to special methods. */
     private final ValueMethodIdentifier methods;
 
-    @SuppressWarnings("StaticAssignmentInConstructor") // static Range.ignoreOverflow is gross
     public ValueAnnotatedTypeFactory(BaseTypeChecker checker) {
         super(checker);
 
         reportEvalWarnings = checker.hasOption(ValueChecker.REPORT_EVAL_WARNS);
-        Range.ignoreOverflow = checker.hasOption(ValueChecker.IGNORE_RANGE_OVERFLOW);
+        Range.setIgnoreOverflow(checker.hasOption(ValueChecker.IGNORE_RANGE_OVERFLOW));
         evaluator = new ReflectiveEvaluator(checker, this, reportEvalWarnings);
 
         addAliasedAnnotation("android.support.annotation.IntRange", IntRange.class, true);
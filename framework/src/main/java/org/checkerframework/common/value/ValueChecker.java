@@ -55,7 +55,7 @@ public class ValueChecker extends BaseTypeChecker {
     @Override
     public void typeProcessingOver() {
         // Reset ignore overflow.
-        Range.ignoreOverflow = false;
+        Range.setIgnoreOverflow(false);
         super.typeProcessingOver();
     }
 }
@@ -272,8 +272,8 @@ public class ValueVisitor extends BaseTypeVisitor<ValueAnnotatedTypeFactory> {
             if (castTypeKind == TypeKind.LONG && castRange.isLongEverything()) {
                 return p;
             }
-            if (Range.ignoreOverflow) {
-                // Range.ignoreOverflow is only set if this checker is ignoring overflow.
+            if (Range.getIgnoreOverflow()) {
+                // Range.getIgnoreOverflow() is only true if this checker is ignoring overflow.
                 // In that case, do not warn if the range of the expression encompasses
                 // the whole type being casted to (i.e. the warning is actually about overflow).
                 Range exprRange = ValueAnnotatedTypeFactory.getRange(exprAnno);
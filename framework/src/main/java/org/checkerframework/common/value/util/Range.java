@@ -5,7 +5,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import javax.lang.model.type.TypeKind;
 import org.checkerframework.checker.interning.qual.InternedDistinct;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -35,29 +34,53 @@ public class Range {
      *       smaller value (and similarly for the min).
      * </ul>
      *
-     * <p>Any checker that uses this library should set this field. By default, this field is set to
-     * false (meaning overflow is taken into account), but a previous checker might have set it to
-     * true.
+     * <p>Any checker that uses this library should set this value, by calling {@link
+     * #setIgnoreOverflow}. By default, it is false (meaning overflow is taken into account), but a
+     * previous checker might have set it to true.
      *
-     * <p>A static field is used because passing an instance field throughout the class bloats the
-     * code.
+     * <p>A static value is used because passing an instance field throughout the class bloats the
+     * code. It is per thread, because compilations that run concurrently in one JVM, such as tests,
+     * may use different values; a compilation runs in a single thread.
      */
-    public static boolean ignoreOverflow = false;
+    private static final ThreadLocal<Boolean> ignoreOverflow =
+            ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Returns whether ranges ignore overflow in the current thread.
+     *
+     * @return true if ranges ignore overflow, false if they take it into account
+     * @see #setIgnoreOverflow
+     */
+    public static boolean getIgnoreOverflow() {
+        return ignoreOverflow.get();
+    }
+
+    /**
+     * Sets whether ranges ignore overflow in the current thread: if true, operations that would
+     * result in more than the max value are clipped to the max value (and similarly for the min);
+     * if false, they wrap around according to the rules of twos-complement arithmetic.
+     *
+     * @param ignore true if ranges should ignore overflow, false if they should take it into
+     *     account
+     */
+    public static void setIgnoreOverflow(boolean ignore) {
+        ignoreOverflow.set(ignore);
+    }
 
     /** A range containing all possible 64-bit values. */
-    public static final Range LONG_EVERYTHING = create(Long.MIN_VALUE, Long.MAX_VALUE);
+    public static final Range LONG_EVERYTHING = new Range(Long.MIN_VALUE, Long.MAX_VALUE);
 
     /** A range containing all possible 32-bit values. */
-    public static final Range INT_EVERYTHING = create(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    public static final Range INT_EVERYTHING = new Range(Integer.MIN_VALUE, Integer.MAX_VALUE);
 
     /** A range containing all possible 16-bit values. */
-    public static final Range SHORT_EVERYTHING = create(Short.MIN_VALUE, Short.MAX_VALUE);
+    public static final Range SHORT_EVERYTHING = new Range(Short.MIN_VALUE, Short.MAX_VALUE);
 
     /** A range containing all possible char values. */
-    public static final Range CHAR_EVERYTHING = create(Character.MIN_VALUE, Character.MAX_VALUE);
+    public static final Range CHAR_EVERYTHING = new Range(Character.MIN_VALUE, Character.MAX_VALUE);
 
     /** A range containing all possible 8-bit values. */
-    public static final Range BYTE_EVERYTHING = create(Byte.MIN_VALUE, Byte.MAX_VALUE);
+    public static final Range BYTE_EVERYTHING = new Range(Byte.MIN_VALUE, Byte.MAX_VALUE);
 
     /** The empty range. This is the only Range object that contains nothing */
     @SuppressWarnings(
@@ -67,6 +90,25 @@ public class Range {
     /** An alias to the range containing all possible 64-bit values. */
     public static final Range EVERYTHING = LONG_EVERYTHING;
 
+    /** The smallest value whose singleton range is in {@link #SMALL_CONSTANTS}. */
+    private static final int SMALL_CONSTANTS_MIN = -128;
+
+    /** The largest value whose singleton range is in {@link #SMALL_CONSTANTS}. */
+    private static final int SMALL_CONSTANTS_MAX = 1024;
+
+    /**
+     * The singleton ranges of small values, which are the most common results of constant
+     * arithmetic. The range [i..i] is at index {@code i - SMALL_CONSTANTS_MIN}.
+     */
+    private static final Range[] SMALL_CONSTANTS =
+            new Range[SMALL_CONSTANTS_MAX - SMALL_CONSTANTS_MIN + 1];
+
+    static {
+        for (int i = SMALL_CONSTANTS_MIN; i <= SMALL_CONSTANTS_MAX; i++) {
+            SMALL_CONSTANTS[i - SMALL_CONSTANTS_MIN] = new Range(i, i);
+        }
+    }
+
     /**
      * Constructs a range with its bounds specified by two parameters, {@code from} and {@code to}.
      *
@@ -93,6 +135,33 @@ public class Range {
         if (!(from <= to)) {
             throw new IllegalArgumentException(String.format("Invalid Range: %s %s", from, to));
         }
+        return of(from, to);
+    }
+
+    /**
+     * Returns the Range [from..to]. Requires {@code from <= to}. The ranges of the primitive types
+     * and the singleton ranges of small values are shared rather than allocated anew.
+     *
+     * @param from the lower bound (inclusive)
+     * @param to the upper bound (inclusive)
+     * @return the Range [from..to]
+     */
+    private static Range of(long from, long to) {
+        if (from == to) {
+            if (SMALL_CONSTANTS_MIN <= from && from <= SMALL_CONSTANTS_MAX) {
+                return SMALL_CONSTANTS[(int) from - SMALL_CONSTANTS_MIN];
+            }
+        } else if (from == Long.MIN_VALUE && to == Long.MAX_VALUE) {
+            return LONG_EVERYTHING;
+        } else if (from == Integer.MIN_VALUE && to == Integer.MAX_VALUE) {
+            return INT_EVERYTHING;
+        } else if (from == Short.MIN_VALUE && to == Short.MAX_VALUE) {
+            return SHORT_EVERYTHING;
+        } else if (from == Character.MIN_VALUE && to == Character.MAX_VALUE) {
+            return CHAR_EVERYTHING;
+        } else if (from == Byte.MIN_VALUE && to == Byte.MAX_VALUE) {
+            return BYTE_EVERYTHING;
+        }
         return new Range(from, to);
     }
 
@@ -156,11 +225,11 @@ public class Range {
      *
      * <p>If the BigInteger range is wider than the full range of the Long class, return EVERYTHING.
      *
-     * <p>If one of the BigInteger bounds is out of Long's range and {@link #ignoreOverflow} is
+     * <p>If one of the BigInteger bounds is out of Long's range and {@code ignoreOverflow} is
      * false, convert the bounds to Long type in accordance with Java twos-complement overflow
      * rules, e.g., Long.MAX_VALUE + 1 is converted to Long.MIN_VALUE.
      *
-     * <p>If one of the BigInteger bounds is out of Long's range and {@link #ignoreOverflow} is
+     * <p>If one of the BigInteger bounds is out of Long's range and {@code ignoreOverflow} is
      * true, convert the bound that is outside Long's range to max/min value of a Long.
      *
      * @param bigFrom the lower bound of the BigInteger range
@@ -168,7 +237,7 @@ public class Range {
      * @return a range with Long type bounds converted from the BigInteger range
      */
     private static Range create(BigInteger bigFrom, BigInteger bigTo) {
-        if (ignoreOverflow) {
+        if (ignoreOverflow.get()) {
             bigFrom = bigFrom.max(BIG_LONG_MIN_VALUE);
             bigTo = bigTo.min(BIG_LONG_MAX_VALUE);
         } else {
@@ -192,7 +261,7 @@ public class Range {
      */
     private static Range createOrElse(long from, long to, Range alternate) {
         if (from <= to) {
-            return new Range(from, to);
+            return of(from, to);
         } else {
             return alternate;
         }
@@ -241,7 +310,8 @@ public class Range {
 
     @Override
     public int hashCode() {
-        return Objects.hash(from, to);
+        // Same as Objects.hash(from, to), without allocating.
+        return 31 * (31 + Long.hashCode(from)) + Long.hashCode(to);
     }
 
     /**
@@ -291,13 +361,13 @@ public class Range {
     /**
      * Converts this range to a 32-bit integral range.
      *
-     * <p>If {@link #ignoreOverflow} is true and one of the bounds is outside the Integer range,
+     * <p>If {@code ignoreOverflow} is true and one of the bounds is outside the Integer range,
      * then that bound is set to the bound of the Integer range.
      *
-     * <p>If {@link #ignoreOverflow} is false and this range is too wide, i.e., wider than the full
+     * <p>If {@code ignoreOverflow} is false and this range is too wide, i.e., wider than the full
      * range of the Integer class, return INT_EVERYTHING.
      *
-     * <p>If {@link #ignoreOverflow} is false and the bounds of this range are not representable as
+     * <p>If {@code ignoreOverflow} is false and the bounds of this range are not representable as
      * 32-bit integers, convert the bounds to Integer type in accordance with Java twos-complement
      * overflow rules, e.g., Integer.MAX_VALUE + 1 is converted to Integer.MIN_VALUE.
      */
@@ -308,7 +378,7 @@ public class Range {
         if (INT_EVERYTHING.contains(this)) {
             return this;
         }
-        if (ignoreOverflow) {
+        if (ignoreOverflow.get()) {
             return create(clipToRange(from, INT_EVERYTHING), clipToRange(to, INT_EVERYTHING));
         }
         if (this.isWiderThan(INT_WIDTH)) {
@@ -323,13 +393,13 @@ public class Range {
     /**
      * Converts a this range to a 16-bit short range.
      *
-     * <p>If {@link #ignoreOverflow} is true and one of the bounds is outside the Short range, then
+     * <p>If {@code ignoreOverflow} is true and one of the bounds is outside the Short range, then
      * that bound is set to the bound of the Short range.
      *
-     * <p>If {@link #ignoreOverflow} is false and this range is too wide, i.e., wider than the full
+     * <p>If {@code ignoreOverflow} is false and this range is too wide, i.e., wider than the full
      * range of the Short class, return SHORT_EVERYTHING.
      *
-     * <p>If {@link #ignoreOverflow} is false and the bounds of this range are not representable as
+     * <p>If {@code ignoreOverflow} is false and the bounds of this range are not representable as
      * 16-bit integers, convert the bounds to Short type in accordance with Java twos-complement
      * overflow rules, e.g., Short.MAX_VALUE + 1 is converted to Short.MIN_VALUE.
      */
@@ -340,7 +410,7 @@ public class Range {
         if (SHORT_EVERYTHING.contains(this)) {
             return this;
         }
-        if (ignoreOverflow) {
+        if (ignoreOverflow.get()) {
             return create(clipToRange(from, SHORT_EVERYTHING), clipToRange(to, SHORT_EVERYTHING));
         }
         if (this.isWiderThan(SHORT_WIDTH)) {
@@ -356,13 +426,13 @@ public class Range {
     /**
      * Converts this range to a char range.
      *
-     * <p>If {@link #ignoreOverflow} is true and one of the bounds is outside the Character range,
+     * <p>If {@code ignoreOverflow} is true and one of the bounds is outside the Character range,
      * then that bound is set to the bound of the Character range.
      *
-     * <p>If {@link #ignoreOverflow} is false and this range is too wide, i.e., wider than the full
+     * <p>If {@code ignoreOverflow} is false and this range is too wide, i.e., wider than the full
      * range of the Character class, return CHAR_EVERYTHING.
      *
-     * <p>If {@link #ignoreOverflow} is false and the bounds of this range are not representable as
+     * <p>If {@code ignoreOverflow} is false and the bounds of this range are not representable as
      * 8-bit integers, convert the bounds to Character type in accordance with Java overflow rules
      * (twos-complement), e.g., Character.MAX_VALUE + 1 is converted to Character.MIN_VALUE.
      */
@@ -373,7 +443,7 @@ public class Range {
         if (CHAR_EVERYTHING.contains(this)) {
             return this;
         }
-        if (ignoreOverflow) {
+        if (ignoreOverflow.get()) {
             return create(clipToRange(from, CHAR_EVERYTHING), clipToRange(to, CHAR_EVERYTHING));
         }
         if (this.isWiderThan(CHAR_WIDTH)) {
@@ -389,13 +459,13 @@ public class Range {
     /**
      * Converts this range to a 8-bit byte range.
      *
-     * <p>If {@link #ignoreOverflow} is true and one of the bounds is outside the Byte range, then
+     * <p>If {@code ignoreOverflow} is true and one of the bounds is outside the Byte range, then
      * that bound is set to the bound of the Byte range.
      *
-     * <p>If {@link #ignoreOverflow} is false and this range is too wide, i.e., wider than the full
+     * <p>If {@code ignoreOverflow} is false and this range is too wide, i.e., wider than the full
      * range of the Byte class, return BYTE_EVERYTHING.
      *
-     * <p>If {@link #ignoreOverflow} is false and the bounds of this range are not representable as
+     * <p>If {@code ignoreOverflow} is false and the bounds of this range are not representable as
      * 8-bit integers, convert the bounds to Byte type in accordance with Java twos-complement
      * overflow rules, e.g., Byte.MAX_VALUE + 1 is converted to Byte.MIN_VALUE.
      */
@@ -406,7 +476,7 @@ public class Range {
         if (BYTE_EVERYTHING.contains(this)) {
             return this;
         }
-        if (ignoreOverflow) {
+        if (ignoreOverflow.get()) {
             return create(clipToRange(from, BYTE_EVERYTHING), clipToRange(to, BYTE_EVERYTHING));
         }
         if (this.isWiderThan(BYTE_WIDTH)) {
@@ -418,7 +488,7 @@ public class Range {
 
     /**
      * Return x clipped to the given range; out-of-range values become extremal values. Appropriate
-     * only when {@link #ignoreOverflow} is true.
+     * only when {@code ignoreOverflow} is true.
      *
      * @param x a value
      * @param r a range
@@ -524,15 +594,11 @@ public class Range {
             return NOTHING;
         }
 
-        if (this.isWithinHalfLong() && right.isWithinHalfLong()) {
-            // This bound is adequate to guarantee no overflow when using long to evaluate
-            long resultFrom = from + right.from;
-            long resultTo = to + right.to;
-            if (from > to) {
-                return Range.EVERYTHING;
-            } else {
-                return create(resultFrom, resultTo);
-            }
+        long resultFrom = from + right.from;
+        long resultTo = to + right.to;
+        if (!additionOverflows(from, right.from, resultFrom)
+                && !additionOverflows(to, right.to, resultTo)) {
+            return create(resultFrom, resultTo);
         } else {
             BigInteger bigFrom = BigInteger.valueOf(from).add(BigInteger.valueOf(right.from));
             BigInteger bigTo = BigInteger.valueOf(to).add(BigInteger.valueOf(right.to));
@@ -553,10 +619,10 @@ public class Range {
             return NOTHING;
         }
 
-        if (this.isWithinHalfLong() && right.isWithinHalfLong()) {
-            // This bound is adequate to guarantee no overflow when using long to evaluate
-            long resultFrom = from - right.to;
-            long resultTo = to - right.from;
+        long resultFrom = from - right.to;
+        long resultTo = to - right.from;
+        if (!subtractionOverflows(from, right.to, resultFrom)
+                && !subtractionOverflows(to, right.from, resultTo)) {
             return create(resultFrom, resultTo);
         } else {
             BigInteger bigFrom = BigInteger.valueOf(from).subtract(BigInteger.valueOf(right.to));
@@ -578,12 +644,17 @@ public class Range {
             return NOTHING;
         }
 
-        // These bounds are adequate:  Integer.MAX_VALUE^2 is still a bit less than Long.MAX_VALUE.
-        if (this.isWithinInteger() && right.isWithinInteger()) {
-            List<Long> possibleValues =
-                    Arrays.asList(
-                            from * right.from, from * right.to, to * right.from, to * right.to);
-            return create(possibleValues);
+        long fromFrom = from * right.from;
+        long fromTo = from * right.to;
+        long toFrom = to * right.from;
+        long toTo = to * right.to;
+        if (!multiplicationOverflows(from, right.from, fromFrom)
+                && !multiplicationOverflows(from, right.to, fromTo)
+                && !multiplicationOverflows(to, right.from, toFrom)
+                && !multiplicationOverflows(to, right.to, toTo)) {
+            return create(
+                    Math.min(Math.min(fromFrom, fromTo), Math.min(toFrom, toTo)),
+                    Math.max(Math.max(fromFrom, fromTo), Math.max(toFrom, toTo)));
         } else {
             final BigInteger bigLeftFrom = BigInteger.valueOf(from);
             final BigInteger bigRightFrom = BigInteger.valueOf(right.from);
@@ -1228,11 +1299,48 @@ public class Range {
     }
 
     /**
-     * Determines if this range is contained inclusively between Long.MIN_VALUE/2 and
-     * Long.MAX_VALUE/2. Note: Long.MIN_VALUE/2 != -Long.MAX_VALUE/2
+     * Returns true if {@code x + y} overflows a long.
+     *
+     * @param x an addend
+     * @param y an addend
+     * @param sum {@code x + y}, computed with long arithmetic
+     * @return true if {@code x + y} overflows
+     */
+    private static boolean additionOverflows(long x, long y, long sum) {
+        // Overflow iff both arguments have the opposite sign of the result, as in Math.addExact.
+        return ((x ^ sum) & (y ^ sum)) < 0;
+    }
+
+    /**
+     * Returns true if {@code x - y} overflows a long.
+     *
+     * @param x the minuend
+     * @param y the subtrahend
+     * @param difference {@code x - y}, computed with long arithmetic
+     * @return true if {@code x - y} overflows
      */
-    private boolean isWithinHalfLong() {
-        return isWithin(Long.MIN_VALUE >> 1, Long.MAX_VALUE >> 1);
+    private static boolean subtractionOverflows(long x, long y, long difference) {
+        // Overflow iff the arguments have different signs and the sign of the result differs from
+        // the sign of x, as in Math.subtractExact.
+        return ((x ^ y) & (x ^ difference)) < 0;
+    }
+
+    /**
+     * Returns true if {@code x * y} overflows a long.
+     *
+     * @param x a factor
+     * @param y a factor
+     * @param product {@code x * y}, computed with long arithmetic
+     * @return true if {@code x * y} overflows
+     */
+    private static boolean multiplicationOverflows(long x, long y, long product) {
+        // The same test as in Math.multiplyExact.
+        long ax = Math.abs(x);
+        long ay = Math.abs(y);
+        if (((ax | ay) >>> 31) == 0) {
+            return false;
+        }
+        return (y != 0 && product / y != x) || (x == Long.MIN_VALUE && y == -1);
     }
 
     /**
@@ -5,9 +5,11 @@ import com.sun.tools.javac.code.TypeAnnotationPosition;
 import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Target;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
@@ -78,10 +80,17 @@ public class WholeProgramInferenceScenesStorage {
      *
      * <p>Modifying a Scene means adding (or changing) a type annotation for a field, method return
      * type, or method parameter type in the Scene. (Scenes are modified by the method {@link
-     * #updateAnnotationSetInScene}.)
+     * #updateAnnotationSetInScene}.) An update that leaves the annotations as they were does not
+     * modify the Scene, so a Scene is written again only if its file would change.
      */
     private final Set<String> modifiedScenes = new HashSet<>();
 
+    /**
+     * True if {@link #annosToIgnore} has changed since the start of the current call to {@link
+     * #updateAnnotationSetInScene}.
+     */
+    private boolean annosToIgnoreChanged = false;
+
     /**
      * Default constructor.
      *
@@ -228,8 +237,50 @@ public class WholeProgramInferenceScenesStorage {
                 return;
             }
         }
+        Map<List<InnerTypeLocation>, Set<Annotation>> annosBefore = annotationsByLocation(type);
+        annosToIgnoreChanged = false;
         updateTypeElementFromATM(rhsATM, lhsATM, atf, type, 1, defLoc);
-        modifiedScenes.add(jaifPath);
+        if (annosToIgnoreChanged || !annosBefore.equals(annotationsByLocation(type))) {
+            modifiedScenes.add(jaifPath);
+        }
+    }
+
+    /**
+     * Returns the annotations of an {@link ATypeElement} and of its inner types, so that they can
+     * be compared before and after an update. Locations without annotations are omitted, because
+     * they are pruned before the Scene is written.
+     *
+     * @param type the ATypeElement whose annotations to return
+     * @return a map from the path of each inner type (empty for {@code type} itself) to a copy of
+     *     its annotations
+     */
+    private static Map<List<InnerTypeLocation>, Set<Annotation>> annotationsByLocation(
+            ATypeElement type) {
+        Map<List<InnerTypeLocation>, Set<Annotation>> result = new HashMap<>();
+        collectAnnotationsByLocation(type, new ArrayList<>(), result);
+        return result;
+    }
+
+    /**
+     * Adds the annotations of an {@link ATypeElement} and of its inner types to a map.
+     *
+     * @param type the ATypeElement whose annotations to add
+     * @param path the path of {@code type}, which this method may modify temporarily
+     * @param result the map to add to
+     * @see #annotationsByLocation
+     */
+    private static void collectAnnotationsByLocation(
+            ATypeElement type,
+            List<InnerTypeLocation> path,
+            Map<List<InnerTypeLocation>, Set<Annotation>> result) {
+        if (!type.tlAnnotationsHere.isEmpty()) {
+            result.put(new ArrayList<>(path), new HashSet<>(type.tlAnnotationsHere));
+        }
+        for (Map.Entry<InnerTypeLocation, ATypeElement> inner : type.innerTypes.entrySet()) {
+            path.add(inner.getKey());
+            collectAnnotationsByLocation(inner.getValue(), path, result);
+            path.remove(path.size() - 1);
+        }
     }
 
     /**
@@ -529,7 +580,9 @@ public class WholeProgramInferenceScenesStorage {
                     annosIgnored = new HashSet<>();
                     annosToIgnore.put(key, annosIgnored);
                 }
-                annosIgnored.add(anno.def().toString());
+                if (annosIgnored.add(anno.def().toString())) {
+                    annosToIgnoreChanged = true;
+                }
             }
         }
     }
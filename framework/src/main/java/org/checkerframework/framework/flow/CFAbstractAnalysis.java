@@ -22,6 +22,7 @@ import org.checkerframework.framework.type.TypeHierarchy;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesHelper;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.Pair;
+import org.checkerframework.javacutil.UserError;
 
 /**
  * {@link CFAbstractAnalysis} is an extensible org.checkerframework.dataflow analysis for the
@@ -90,6 +91,21 @@ public abstract class CFAbstractAnalysis<
         this.transferFunction = createTransferFunction();
         // TODO: remove parameter and set to empty list.
         this.fieldValues = fieldValues;
+        String checkpointOption = checker.getOption("flowCheckpointInterval");
+        if (checkpointOption != null) {
+            int interval;
+            try {
+                interval = Integer.parseInt(checkpointOption);
+            } catch (NumberFormatException ex) {
+                interval = 0;
+            }
+            if (interval < 1) {
+                throw new UserError(
+                        "flowCheckpointInterval was not a positive integer: " + checkpointOption);
+            }
+            setCheckpointInterval(interval);
+        }
+        setWidenOnlyAtLoopHeads(checker.hasOption("flowWidenOnlyAtLoopHeads"));
     }
 
     protected CFAbstractAnalysis(
@@ -103,6 +119,11 @@ public abstract class CFAbstractAnalysis<
                 factory.getQualifierHierarchy().numberOfIterationsBeforeWidening());
     }
 
+    @Override
+    protected void recordCheckpointAccess(boolean hit) {
+        checker.getPhaseProfiler().cacheAccess("flowCheckpoints", hit);
+    }
+
     public void performAnalysis(ControlFlowGraph cfg, List<Pair<VariableElement, V>> fieldValues) {
         this.fieldValues.clear();
         this.fieldValues.addAll(fieldValues);
@@ -189,7 +210,7 @@ public abstract class CFAbstractAnalysis<
      */
     public V createSingleAnnotationValue(AnnotationMirror anno, TypeMirror underlyingType) {
         QualifierHierarchy hierarchy = getTypeFactory().getQualifierHierarchy();
-        Set<AnnotationMirror> annos = AnnotationUtils.createAnnotationSet();
+        Set<AnnotationMirror> annos = AnnotationUtils.createCompactAnnotationSet();
         annos.addAll(hierarchy.getTopAnnotations());
         AnnotationMirror f = hierarchy.findAnnotationInSameHierarchy(annos, anno);
         annos.remove(f);
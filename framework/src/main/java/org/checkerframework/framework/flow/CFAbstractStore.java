@@ -1,6 +1,5 @@
 package org.checkerframework.framework.flow;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -109,24 +108,27 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
 
     protected CFAbstractStore(CFAbstractAnalysis<V, S, ?> analysis, boolean sequentialSemantics) {
         this.analysis = analysis;
-        localVariableValues = new HashMap<>();
+        localVariableValues = new CopyOnWriteHashMap<>();
         thisValue = null;
-        fieldValues = new HashMap<>();
-        methodValues = new HashMap<>();
-        arrayValues = new HashMap<>();
-        classValues = new HashMap<>();
+        fieldValues = new CopyOnWriteHashMap<>();
+        methodValues = new CopyOnWriteHashMap<>();
+        arrayValues = new CopyOnWriteHashMap<>();
+        classValues = new CopyOnWriteHashMap<>();
         this.sequentialSemantics = sequentialSemantics;
     }
 
-    /** Copy constructor. */
+    /**
+     * Copy constructor. The maps of the new store share their contents with those of {@code other}
+     * until either store is modified, so copying a store takes constant time.
+     */
     protected CFAbstractStore(CFAbstractStore<V, S> other) {
         this.analysis = other.analysis;
-        localVariableValues = new HashMap<>(other.localVariableValues);
+        localVariableValues = CopyOnWriteHashMap.copyOf(other.localVariableValues);
         thisValue = other.thisValue;
-        fieldValues = new HashMap<>(other.fieldValues);
-        methodValues = new HashMap<>(other.methodValues);
-        arrayValues = new HashMap<>(other.arrayValues);
-        classValues = new HashMap<>(other.classValues);
+        fieldValues = CopyOnWriteHashMap.copyOf(other.fieldValues);
+        methodValues = CopyOnWriteHashMap.copyOf(other.methodValues);
+        arrayValues = CopyOnWriteHashMap.copyOf(other.arrayValues);
+        classValues = CopyOnWriteHashMap.copyOf(other.classValues);
         sequentialSemantics = other.sequentialSemantics;
     }
 
@@ -198,7 +200,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
                 || analysis.checker.hasOption("assumePure")
                 || isSideEffectFree(atypeFactory, method))) {
             // update field values
-            Map<FlowExpressions.FieldAccess, V> newFieldValues = new HashMap<>();
+            Map<FlowExpressions.FieldAccess, V> newFieldValues = new CopyOnWriteHashMap<>();
             for (Map.Entry<FlowExpressions.FieldAccess, V> e : fieldValues.entrySet()) {
                 FlowExpressions.FieldAccess fieldAccess = e.getKey();
                 V otherVal = e.getValue();
@@ -874,20 +876,19 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
     private S upperBound(S other, boolean shouldWiden) {
         S newStore = analysis.createEmptyStore(sequentialSemantics);
 
-        for (Map.Entry<FlowExpressions.LocalVariable, V> e : other.localVariableValues.entrySet()) {
+        if (shouldWiden
+                || !shareUpperBound(
+                        localVariableValues,
+                        other.localVariableValues,
+                        newStore.localVariableValues)) {
             // local variables that are only part of one store, but not the
             // other are discarded, as one of store implicitly contains 'top'
             // for that variable.
-            FlowExpressions.LocalVariable localVar = e.getKey();
-            V thisVal = localVariableValues.get(localVar);
-            if (thisVal != null) {
-                V otherVal = e.getValue();
-                V mergedVal = upperBoundOfValues(otherVal, thisVal, shouldWiden);
-
-                if (mergedVal != null) {
-                    newStore.localVariableValues.put(localVar, mergedVal);
-                }
-            }
+            upperBoundOfMaps(
+                    localVariableValues,
+                    other.localVariableValues,
+                    newStore.localVariableValues,
+                    shouldWiden);
         }
 
         // information about the current object
@@ -900,62 +901,77 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
             }
         }
 
-        for (Map.Entry<FlowExpressions.FieldAccess, V> e : other.fieldValues.entrySet()) {
+        if (shouldWiden || !shareUpperBound(fieldValues, other.fieldValues, newStore.fieldValues)) {
             // information about fields that are only part of one store, but not
             // the other are discarded, as one store implicitly contains 'top'
             // for that field.
-            FlowExpressions.FieldAccess el = e.getKey();
-            V thisVal = fieldValues.get(el);
-            if (thisVal != null) {
-                V otherVal = e.getValue();
-                V mergedVal = upperBoundOfValues(otherVal, thisVal, shouldWiden);
-                if (mergedVal != null) {
-                    newStore.fieldValues.put(el, mergedVal);
-                }
-            }
+            upperBoundOfMaps(fieldValues, other.fieldValues, newStore.fieldValues, shouldWiden);
         }
-        for (Map.Entry<FlowExpressions.ArrayAccess, V> e : other.arrayValues.entrySet()) {
+        if (shouldWiden || !shareUpperBound(arrayValues, other.arrayValues, newStore.arrayValues)) {
             // information about arrays that are only part of one store, but not
             // the other are discarded, as one store implicitly contains 'top'
             // for that array access.
-            FlowExpressions.ArrayAccess el = e.getKey();
-            V thisVal = arrayValues.get(el);
-            if (thisVal != null) {
-                V otherVal = e.getValue();
-                V mergedVal = upperBoundOfValues(otherVal, thisVal, shouldWiden);
-                if (mergedVal != null) {
-                    newStore.arrayValues.put(el, mergedVal);
-                }
-            }
+            upperBoundOfMaps(arrayValues, other.arrayValues, newStore.arrayValues, shouldWiden);
         }
-        for (Map.Entry<MethodCall, V> e : other.methodValues.entrySet()) {
+        if (shouldWiden
+                || !shareUpperBound(methodValues, other.methodValues, newStore.methodValues)) {
             // information about methods that are only part of one store, but
             // not the other are discarded, as one store implicitly contains
             // 'top' for that field.
-            FlowExpressions.MethodCall el = e.getKey();
-            V thisVal = methodValues.get(el);
-            if (thisVal != null) {
-                V otherVal = e.getValue();
-                V mergedVal = upperBoundOfValues(otherVal, thisVal, shouldWiden);
-                if (mergedVal != null) {
-                    newStore.methodValues.put(el, mergedVal);
-                }
-            }
+            upperBoundOfMaps(methodValues, other.methodValues, newStore.methodValues, shouldWiden);
         }
-        for (Map.Entry<FlowExpressions.ClassName, V> e : other.classValues.entrySet()) {
-            FlowExpressions.ClassName el = e.getKey();
-            V thisVal = classValues.get(el);
-            if (thisVal != null) {
-                V otherVal = e.getValue();
-                V mergedVal = upperBoundOfValues(otherVal, thisVal, shouldWiden);
-                if (mergedVal != null) {
-                    newStore.classValues.put(el, mergedVal);
-                }
-            }
+        if (shouldWiden || !shareUpperBound(classValues, other.classValues, newStore.classValues)) {
+            upperBoundOfMaps(classValues, other.classValues, newStore.classValues, shouldWiden);
         }
         return newStore;
     }
 
+    /**
+     * If {@code thisMap} and {@code otherMap} share their contents, makes {@code newMap} share them
+     * as well. Because the least upper bound of a value with itself is that value, the result is
+     * the same as merging the maps entry by entry.
+     *
+     * @param <K> the type of keys
+     * @param thisMap a map of this store
+     * @param otherMap the corresponding map of the other store
+     * @param newMap the corresponding map of the new, empty store
+     * @return true if {@code newMap} now contains the least upper bound of the two maps, false if
+     *     they still have to be merged entry by entry
+     */
+    private static <K, V> boolean shareUpperBound(
+            Map<K, V> thisMap, Map<K, V> otherMap, Map<K, V> newMap) {
+        if (!(newMap instanceof CopyOnWriteHashMap)
+                || !CopyOnWriteHashMap.sharesContents(thisMap, otherMap)) {
+            return false;
+        }
+        ((CopyOnWriteHashMap<K, V>) newMap).setContents(thisMap);
+        return true;
+    }
+
+    /**
+     * Adds the upper bounds of the values that {@code thisMap} and {@code otherMap} have for the
+     * same key to {@code newMap}. Keys that are only in one of the maps are discarded.
+     *
+     * @param <K> the type of keys
+     * @param thisMap a map of this store
+     * @param otherMap the corresponding map of the other store
+     * @param newMap the corresponding map of the new store
+     * @param shouldWiden true if widening should be used instead of the least upper bound
+     */
+    private <K> void upperBoundOfMaps(
+            Map<K, V> thisMap, Map<K, V> otherMap, Map<K, V> newMap, boolean shouldWiden) {
+        otherMap.forEach(
+                (key, otherVal) -> {
+                    V thisVal = thisMap.get(key);
+                    if (thisVal != null) {
+                        V mergedVal = upperBoundOfValues(otherVal, thisVal, shouldWiden);
+                        if (mergedVal != null) {
+                            newMap.put(key, mergedVal);
+                        }
+                    }
+                });
+    }
+
     private V upperBoundOfValues(V otherVal, V thisVal, boolean shouldWiden) {
         return shouldWiden ? thisVal.widenUpperBound(otherVal) : thisVal.leastUpperBound(otherVal);
     }
@@ -964,41 +980,33 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
      * Returns true iff this {@link CFAbstractStore} contains a superset of the map entries of the
      * argument {@link CFAbstractStore}. Note that we test the entry keys and values by Java
      * equality, not by any subtype relationship. This method is used primarily to simplify the
-     * equals predicate.
+     * equals predicate. Maps that share their contents with the corresponding map of {@code other}
+     * are not compared entry by entry.
      */
     protected boolean supersetOf(CFAbstractStore<V, S> other) {
-        for (Map.Entry<FlowExpressions.LocalVariable, V> e : other.localVariableValues.entrySet()) {
-            FlowExpressions.LocalVariable key = e.getKey();
-            V value = localVariableValues.get(key);
-            if (value == null || !value.equals(e.getValue())) {
-                return false;
-            }
-        }
-        for (Map.Entry<FlowExpressions.FieldAccess, V> e : other.fieldValues.entrySet()) {
-            FlowExpressions.FieldAccess key = e.getKey();
-            V value = fieldValues.get(key);
-            if (value == null || !value.equals(e.getValue())) {
-                return false;
-            }
-        }
-        for (Map.Entry<FlowExpressions.ArrayAccess, V> e : other.arrayValues.entrySet()) {
-            FlowExpressions.ArrayAccess key = e.getKey();
-            V value = arrayValues.get(key);
-            if (value == null || !value.equals(e.getValue())) {
-                return false;
-            }
-        }
-        for (Map.Entry<MethodCall, V> e : other.methodValues.entrySet()) {
-            FlowExpressions.MethodCall key = e.getKey();
-            V value = methodValues.get(key);
-            if (value == null || !value.equals(e.getValue())) {
-                return false;
-            }
+        return containsAllMappings(localVariableValues, other.localVariableValues)
+                && containsAllMappings(fieldValues, other.fieldValues)
+                && containsAllMappings(arrayValues, other.arrayValues)
+                && containsAllMappings(methodValues, other.methodValues)
+                && containsAllMappings(classValues, other.classValues);
+    }
+
+    /**
+     * Returns true iff {@code thisMap} contains all mappings of {@code otherMap}, comparing values
+     * by Java equality.
+     *
+     * @param <K> the type of keys
+     * @param thisMap a map of this store
+     * @param otherMap the corresponding map of the other store
+     * @return true iff {@code thisMap} contains all mappings of {@code otherMap}
+     */
+    private static <K, V> boolean containsAllMappings(Map<K, V> thisMap, Map<K, V> otherMap) {
+        if (CopyOnWriteHashMap.sharesContents(thisMap, otherMap)) {
+            return true;
         }
-        for (Map.Entry<FlowExpressions.ClassName, V> e : other.classValues.entrySet()) {
-            FlowExpressions.ClassName key = e.getKey();
-            V value = classValues.get(key);
-            if (value == null || !value.equals(e.getValue())) {
+        for (K key : otherMap.keySet()) {
+            V value = thisMap.get(key);
+            if (value == null || !value.equals(otherMap.get(key))) {
                 return false;
             }
         }
@@ -1050,24 +1058,15 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
      */
     protected String internalVisualize(CFGVisualizer<V, S, ?> viz) {
         StringJoiner res = new StringJoiner(viz.getSeparator());
-        for (Map.Entry<FlowExpressions.LocalVariable, V> entry : localVariableValues.entrySet()) {
-            res.add(viz.visualizeStoreLocalVar(entry.getKey(), entry.getValue()));
-        }
+        localVariableValues.forEach(
+                (key, value) -> res.add(viz.visualizeStoreLocalVar(key, value)));
         if (thisValue != null) {
             res.add(viz.visualizeStoreThisVal(thisValue));
         }
-        for (Map.Entry<FlowExpressions.FieldAccess, V> entry : fieldValues.entrySet()) {
-            res.add(viz.visualizeStoreFieldVal(entry.getKey(), entry.getValue()));
-        }
-        for (Map.Entry<FlowExpressions.ArrayAccess, V> entry : arrayValues.entrySet()) {
-            res.add(viz.visualizeStoreArrayVal(entry.getKey(), entry.getValue()));
-        }
-        for (Map.Entry<MethodCall, V> entry : methodValues.entrySet()) {
-            res.add(viz.visualizeStoreMethodVals(entry.getKey(), entry.getValue()));
-        }
-        for (Map.Entry<FlowExpressions.ClassName, V> entry : classValues.entrySet()) {
-            res.add(viz.visualizeStoreClassVals(entry.getKey(), entry.getValue()));
-        }
+        fieldValues.forEach((key, value) -> res.add(viz.visualizeStoreFieldVal(key, value)));
+        arrayValues.forEach((key, value) -> res.add(viz.visualizeStoreArrayVal(key, value)));
+        methodValues.forEach((key, value) -> res.add(viz.visualizeStoreMethodVals(key, value)));
+        classValues.forEach((key, value) -> res.add(viz.visualizeStoreClassVals(key, value)));
         return res.toString();
     }
 }
@@ -238,7 +238,7 @@ public abstract class CFAbstractValue<V extends CFAbstractValue<V>> implements A
             mostSpecifTypeMirror = this.getUnderlyingType();
         }
 
-        Set<AnnotationMirror> mostSpecific = AnnotationUtils.createAnnotationSet();
+        Set<AnnotationMirror> mostSpecific = AnnotationUtils.createCompactAnnotationSet();
         MostSpecificVisitor ms =
                 new MostSpecificVisitor(
                         mostSpecifTypeMirror,
@@ -404,7 +404,7 @@ public abstract class CFAbstractValue<V extends CFAbstractValue<V>> implements A
             return v;
         }
         ProcessingEnvironment processingEnv = analysis.getTypeFactory().getProcessingEnv();
-        Set<AnnotationMirror> lub = AnnotationUtils.createAnnotationSet();
+        Set<AnnotationMirror> lub = AnnotationUtils.createCompactAnnotationSet();
         TypeMirror lubTypeMirror =
                 TypesUtils.leastUpperBound(
                         this.getUnderlyingType(), other.getUnderlyingType(), processingEnv);
@@ -9,6 +9,8 @@ import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.VariableElement;
@@ -18,6 +20,8 @@ import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.dataflow.cfg.CFGBuilder;
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.dataflow.cfg.node.MethodInvocationNode;
+import org.checkerframework.dataflow.qual.TerminatesExecution;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
@@ -34,7 +38,11 @@ public class CFCFGBuilder extends CFGBuilder {
     /** This class should never be instantiated. Protected to still allow subclasses. */
     protected CFCFGBuilder() {}
 
-    /** Build the control flow graph of some code. */
+    /**
+     * Build the control flow graph of some code. If the checker is part of a compound checker,
+     * reuse the graph that another checker of the compound checker has built for the same code,
+     * if building it did not depend on that checker; see {@link CFGCache}.
+     */
     public static ControlFlowGraph build(
             CompilationUnitTree root,
             UnderlyingAST underlyingAST,
@@ -48,18 +56,42 @@ public class CFCFGBuilder extends CFGBuilder {
                     "Assertions cannot be assumed to be enabled and disabled at the same time.");
         }
 
+        CFGCache cache = checker.getCFGCache();
+        if (cache != null) {
+            ControlFlowGraph cached =
+                    cache.get(
+                            root,
+                            underlyingAST,
+                            assumeAssertionsEnabled,
+                            assumeAssertionsDisabled,
+                            factory);
+            checker.getPhaseProfiler().cacheAccess("cfgCache", cached != null);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         CFTreeBuilder builder = new CFTreeBuilder(env);
-        PhaseOneResult phase1result =
+        CFCFGTranslationPhaseOne phase1 =
                 new CFCFGTranslationPhaseOne(
-                                builder,
-                                checker,
-                                factory,
-                                assumeAssertionsEnabled,
-                                assumeAssertionsDisabled,
-                                env)
-                        .process(root, underlyingAST);
+                        builder,
+                        checker,
+                        factory,
+                        assumeAssertionsEnabled,
+                        assumeAssertionsDisabled,
+                        env);
+        PhaseOneResult phase1result = phase1.process(root, underlyingAST);
         ControlFlowGraph phase2result = CFGTranslationPhaseTwo.process(phase1result);
         ControlFlowGraph phase3result = CFGTranslationPhaseThree.process(phase2result);
+        if (cache != null && !phase1.dependsOnChecker) {
+            cache.put(
+                    root,
+                    phase3result,
+                    assumeAssertionsEnabled,
+                    assumeAssertionsDisabled,
+                    phase1.terminatesExecution,
+                    phase1.artificialTrees);
+        }
         return phase3result;
     }
 
@@ -91,6 +123,18 @@ public class CFCFGBuilder extends CFGBuilder {
         /** Type factory to provide types used during CFG building. */
         protected final AnnotatedTypeFactory factory;
 
+        /**
+         * True if the graph depends on the checker in a way that {@link CFGCache} cannot check, so
+         * that other checkers must not reuse it.
+         */
+        protected boolean dependsOnChecker = false;
+
+        /** For each method invoked in the graph, whether it terminates execution. */
+        protected final Map<Element, Boolean> terminatesExecution = new IdentityHashMap<>();
+
+        /** The artificial trees of the graph, and the elements that enclose them. */
+        protected final Map<Tree, Element> artificialTrees = new IdentityHashMap<>();
+
         public CFCFGTranslationPhaseOne(
                 CFTreeBuilder builder,
                 BaseTypeChecker checker,
@@ -105,12 +149,30 @@ public class CFCFGBuilder extends CFGBuilder {
 
         @Override
         protected boolean assumeAssertionsEnabledFor(AssertTree tree) {
+            ExpressionTree detail = tree.getDetail();
+            if (detail != null && detail.toString().contains("@AssumeAssertion(")) {
+                // Whether the assertion is assumed depends on the checker's prefixes.
+                dependsOnChecker = true;
+            }
             if (assumeAssertionsActivatedForAssertTree(checker, tree)) {
                 return true;
             }
             return super.assumeAssertionsEnabledFor(tree);
         }
 
+        @Override
+        public MethodInvocationNode visitMethodInvocation(MethodInvocationTree tree, Void p) {
+            MethodInvocationNode result = super.visitMethodInvocation(tree, p);
+            Element methodElement = TreeUtils.elementFromTree(tree);
+            if (methodElement != null) {
+                terminatesExecution.put(
+                        methodElement,
+                        factory.getDeclAnnotation(methodElement, TerminatesExecution.class)
+                                != null);
+            }
+            return result;
+        }
+
         @Override
         public void handleArtificialTree(Tree tree) {
             // Record the method or class that encloses the newly created tree.
@@ -118,11 +180,13 @@ public class CFCFGBuilder extends CFGBuilder {
             if (enclosingMethod != null) {
                 Element methodElement = TreeUtils.elementFromDeclaration(enclosingMethod);
                 factory.setEnclosingElementForArtificialTree(tree, methodElement);
+                artificialTrees.put(tree, methodElement);
             } else {
                 ClassTree enclosingClass = TreeUtils.enclosingClass(getCurrentPath());
                 if (enclosingClass != null) {
                     Element classElement = TreeUtils.elementFromDeclaration(enclosingClass);
                     factory.setEnclosingElementForArtificialTree(tree, classElement);
+                    artificialTrees.put(tree, classElement);
                 }
             }
         }
@@ -130,6 +194,8 @@ public class CFCFGBuilder extends CFGBuilder {
         @Override
         protected VariableTree createEnhancedForLoopIteratorVariable(
                 MethodInvocationTree iteratorCall, VariableElement variableElement) {
+            // The type of the variable is computed by this checker's type factory.
+            dependsOnChecker = true;
             // We do not want to cache flow-insensitive types
             // retrieved during CFG building.
             boolean oldShouldCache = factory.shouldCache;
@@ -154,6 +220,8 @@ public class CFCFGBuilder extends CFGBuilder {
         @Override
         protected VariableTree createEnhancedForLoopArrayVariable(
                 ExpressionTree expression, VariableElement variableElement) {
+            // The type of the variable is computed by this checker's type factory.
+            dependsOnChecker = true;
             // We do not want to cache flow-insensitive types
             // retrieved during CFG building.
             boolean oldShouldCache = factory.shouldCache;
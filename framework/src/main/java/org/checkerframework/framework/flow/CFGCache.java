@@ -0,0 +1,167 @@
+package org.checkerframework.framework.flow;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.lang.model.element.Element;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.dataflow.qual.TerminatesExecution;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
+
+/**
+ * The control flow graphs that the checkers of a compound checker have built for the current
+ * compilation unit. A compound checker, such as the Index Checker or the Nullness Checker, runs
+ * several subcheckers over each compilation unit, and each of them would otherwise build the
+ * control flow graph of every method again. A checker uses a graph of this cache read-only: the
+ * results of its analysis are stored in the analysis, not in the graph.
+ *
+ * <p>{@link CFCFGBuilder} stores a graph only if building it did not depend on the checker, except
+ * in ways that can be checked or replayed for another checker: which invoked methods are annotated
+ * with {@link TerminatesExecution}, and which elements enclose the artificial trees of the graph.
+ *
+ * <p>The cache holds the graphs of one compilation unit at a time. It is emptied when a graph of
+ * another compilation unit is requested or stored.
+ */
+public class CFGCache {
+
+    /** The compilation unit of the graphs in {@link #entries}, or null if there are none. */
+    private @Nullable CompilationUnitTree root;
+
+    /** The cached graphs, by the code they represent ({@link UnderlyingAST#getCode()}). */
+    private final IdentityHashMap<Tree, Entry> entries = new IdentityHashMap<>();
+
+    /** Creates an empty cache. */
+    public CFGCache() {}
+
+    /**
+     * Returns the control flow graph that another checker has built for the given code, if it can
+     * be used by the checker of {@code factory}. Before returning the graph, records the elements
+     * that enclose its artificial trees in {@code factory}, as building the graph would have.
+     *
+     * @param root the compilation unit that contains the code
+     * @param underlyingAST the code
+     * @param assumeAssertionsEnabled whether the checker assumes that assertions are enabled
+     * @param assumeAssertionsDisabled whether the checker assumes that assertions are disabled
+     * @param factory the type factory of the checker
+     * @return the control flow graph of the code, or null if none can be reused
+     */
+    public @Nullable ControlFlowGraph get(
+            CompilationUnitTree root,
+            UnderlyingAST underlyingAST,
+            boolean assumeAssertionsEnabled,
+            boolean assumeAssertionsDisabled,
+            AnnotatedTypeFactory factory) {
+        setRoot(root);
+        Entry entry = entries.get(underlyingAST.getCode());
+        if (entry == null
+                || entry.cfg.getUnderlyingAST().getKind() != underlyingAST.getKind()
+                || entry.assumeAssertionsEnabled != assumeAssertionsEnabled
+                || entry.assumeAssertionsDisabled != assumeAssertionsDisabled) {
+            return null;
+        }
+        for (Map.Entry<Element, Boolean> method : entry.terminatesExecution.entrySet()) {
+            boolean terminatesExecution =
+                    factory.getDeclAnnotation(method.getKey(), TerminatesExecution.class) != null;
+            if (terminatesExecution != method.getValue()) {
+                return null;
+            }
+        }
+        for (Map.Entry<Tree, Element> artificialTree : entry.artificialTrees.entrySet()) {
+            factory.setEnclosingElementForArtificialTree(
+                    artificialTree.getKey(), artificialTree.getValue());
+        }
+        return entry.cfg;
+    }
+
+    /**
+     * Stores a control flow graph, unless a graph of the same code is already stored.
+     *
+     * @param root the compilation unit that contains the code of the graph
+     * @param cfg a control flow graph whose construction did not depend on the checker, except as
+     *     described by the other arguments
+     * @param assumeAssertionsEnabled whether the graph was built assuming that assertions are
+     *     enabled
+     * @param assumeAssertionsDisabled whether the graph was built assuming that assertions are
+     *     disabled
+     * @param terminatesExecution for each method invoked in the graph, whether it is annotated
+     *     with {@link TerminatesExecution}
+     * @param artificialTrees the artificial trees of the graph, and the elements that enclose them
+     */
+    public void put(
+            CompilationUnitTree root,
+            ControlFlowGraph cfg,
+            boolean assumeAssertionsEnabled,
+            boolean assumeAssertionsDisabled,
+            Map<Element, Boolean> terminatesExecution,
+            Map<Tree, Element> artificialTrees) {
+        setRoot(root);
+        entries.putIfAbsent(
+                cfg.getUnderlyingAST().getCode(),
+                new Entry(
+                        cfg,
+                        assumeAssertionsEnabled,
+                        assumeAssertionsDisabled,
+                        terminatesExecution,
+                        artificialTrees));
+    }
+
+    /**
+     * Empties the cache if {@code newRoot} is not the compilation unit of the cached graphs.
+     *
+     * @param newRoot the compilation unit of a graph that is requested or stored
+     */
+    private void setRoot(CompilationUnitTree newRoot) {
+        if (root != newRoot) {
+            entries.clear();
+            root = newRoot;
+        }
+    }
+
+    /** A cached control flow graph, and the checker-specific facts that its construction used. */
+    private static class Entry {
+
+        /** The control flow graph. */
+        final ControlFlowGraph cfg;
+
+        /** Whether the graph was built assuming that assertions are enabled. */
+        final boolean assumeAssertionsEnabled;
+
+        /** Whether the graph was built assuming that assertions are disabled. */
+        final boolean assumeAssertionsDisabled;
+
+        /** For each method invoked in the graph, whether it terminates execution. */
+        final Map<Element, Boolean> terminatesExecution;
+
+        /** The artificial trees of the graph, and the elements that enclose them. */
+        final Map<Tree, Element> artificialTrees;
+
+        /**
+         * Creates an entry.
+         *
+         * @param cfg the control flow graph
+         * @param assumeAssertionsEnabled whether the graph was built assuming that assertions are
+         *     enabled
+         * @param assumeAssertionsDisabled whether the graph was built assuming that assertions are
+         *     disabled
+         * @param terminatesExecution for each method invoked in the graph, whether it terminates
+         *     execution
+         * @param artificialTrees the artificial trees of the graph, and the elements that enclose
+         *     them
+         */
+        Entry(
+                ControlFlowGraph cfg,
+                boolean assumeAssertionsEnabled,
+                boolean assumeAssertionsDisabled,
+                Map<Element, Boolean> terminatesExecution,
+                Map<Tree, Element> artificialTrees) {
+            this.cfg = cfg;
+            this.assumeAssertionsEnabled = assumeAssertionsEnabled;
+            this.assumeAssertionsDisabled = assumeAssertionsDisabled;
+            this.terminatesExecution = terminatesExecution;
+            this.artificialTrees = artificialTrees;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package org.checkerframework.framework.flow;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A hash map whose copies share their contents until one of them is modified. It is used for the
+ * maps of a {@link CFAbstractStore}, which is copied at every block boundary and at every
+ * conditional branch of the analysis, but usually only modified in a few places afterwards.
+ *
+ * <p>A copy made by {@link #copyOf} takes constant time: the copy and the original refer to the
+ * same backing {@link HashMap}, and both are marked as shared. A shared backing map is never
+ * modified again; the first modification of a map whose backing map is shared replaces the backing
+ * map by a private copy. An iterator of the map's entries checks whether the backing map is shared
+ * at every modification that it makes, so a map can be modified through an iterator even if its
+ * backing map is shared, or becomes shared, during the iteration.
+ *
+ * <p>Iterating over a map does not allocate an object per entry: {@link #forEach} and {@link
+ * #keySet} iterate over the backing map directly, and an iterator of the map's entries returns the
+ * entries of the backing map as long as it may be modified. Only an entry of a shared backing map
+ * is wrapped, so that {@link Map.Entry#setValue} does not modify the shared map. Therefore, {@code
+ * setValue} must not be called on an entry after the map has been copied.
+ *
+ * <p>This class is not thread-safe, and neither are the stores that use it.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public final class CopyOnWriteHashMap<K, V> extends AbstractMap<K, V> {
+
+    /** The backing map. If {@link #shared} is true, it must not be modified. */
+    private HashMap<K, V> map;
+
+    /**
+     * True if {@link #map} may be referenced by another {@code CopyOnWriteHashMap}. Once a backing
+     * map has been shared, it is never modified again, even if all other maps that refer to it
+     * have made private copies in the meantime.
+     */
+    private boolean shared;
+
+    /** The entry set view of this map, created on demand. */
+    private @Nullable Set<Map.Entry<K, V>> entrySet;
+
+    /** The key set view of this map, created on demand. */
+    private @Nullable Set<K> keySet;
+
+    /** Creates a new, empty map. */
+    public CopyOnWriteHashMap() {
+        this.map = new HashMap<>();
+        this.shared = false;
+    }
+
+    /**
+     * Returns a new map with the same mappings as {@code other}. If {@code other} is a {@code
+     * CopyOnWriteHashMap}, this takes constant time.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @param other the map to copy
+     * @return a new map with the same mappings as {@code other}
+     */
+    public static <K, V> CopyOnWriteHashMap<K, V> copyOf(Map<K, V> other) {
+        CopyOnWriteHashMap<K, V> result = new CopyOnWriteHashMap<>();
+        result.setContents(other);
+        return result;
+    }
+
+    /**
+     * Replaces the mappings of this map by those of {@code other}. If {@code other} is a {@code
+     * CopyOnWriteHashMap}, this takes constant time.
+     *
+     * @param other the map whose mappings to use
+     */
+    public void setContents(Map<K, V> other) {
+        if (other instanceof CopyOnWriteHashMap) {
+            CopyOnWriteHashMap<K, V> cow = (CopyOnWriteHashMap<K, V>) other;
+            cow.shared = true;
+            this.map = cow.map;
+            this.shared = true;
+        } else {
+            this.map = new HashMap<>(other);
+            this.shared = false;
+        }
+    }
+
+    /**
+     * Returns true if {@code m1} and {@code m2} are known to have the same mappings because they
+     * share their contents. If this method returns false, the maps may or may not be equal.
+     *
+     * @param m1 a map
+     * @param m2 a map
+     * @return true if {@code m1} and {@code m2} are known to have the same mappings
+     */
+    public static boolean sharesContents(Map<?, ?> m1, Map<?, ?> m2) {
+        if (m1 == m2) {
+            return true;
+        }
+        return m1 instanceof CopyOnWriteHashMap
+                && m2 instanceof CopyOnWriteHashMap
+                && ((CopyOnWriteHashMap<?, ?>) m1).map == ((CopyOnWriteHashMap<?, ?>) m2).map;
+    }
+
+    /**
+     * Makes sure that {@link #map} is not shared with another map, so that it can be modified.
+     *
+     * @return the backing map, which may be modified
+     */
+    private HashMap<K, V> writableMap() {
+        if (shared) {
+            map = new HashMap<>(map);
+            shared = false;
+        }
+        return map;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return writableMap().put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (!m.isEmpty()) {
+            writableMap().putAll(m);
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        return writableMap().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            map = new HashMap<>();
+            shared = false;
+        } else {
+            map.clear();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new KeySet();
+        }
+        return keySet;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach(action);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (o instanceof CopyOnWriteHashMap && sharesContents(this, (CopyOnWriteHashMap<?, ?>) o)) {
+            return true;
+        }
+        return map.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
+    /** The entry set view of a {@link CopyOnWriteHashMap}. */
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.entrySet().contains(o);
+        }
+
+        @Override
+        public void clear() {
+            CopyOnWriteHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+    }
+
+    /** The key set view of a {@link CopyOnWriteHashMap}. */
+    private final class KeySet extends AbstractSet<K> {
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!map.containsKey(o)) {
+                return false;
+            }
+            CopyOnWriteHashMap.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            CopyOnWriteHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new KeyIterator();
+        }
+    }
+
+    /**
+     * An iterator over the entries of a {@link CopyOnWriteHashMap}. It iterates over the backing
+     * map of the time it was created. A modification through the iterator or its entries is
+     * applied to that backing map directly only if it is still the backing map and is not shared;
+     * otherwise, it is applied to a private copy, and the iteration continues over the shared
+     * backing map, which is never modified.
+     *
+     * @param <T> the type of the elements returned by the iterator
+     */
+    private abstract class BackingMapIterator<T> implements Iterator<T> {
+
+        /** The backing map over which this iterates. */
+        private final HashMap<K, V> iteratedMap = map;
+
+        /** The iterator over {@link #iteratedMap}. */
+        private final Iterator<Map.Entry<K, V>> delegate = iteratedMap.entrySet().iterator();
+
+        /** The key of the entry most recently returned by {@link #nextEntry}. */
+        private @Nullable K lastKey;
+
+        /** True if {@link #nextEntry} has been called since the last call to {@link #remove}. */
+        private boolean canRemove = false;
+
+        /**
+         * Returns true if {@link #iteratedMap} may be modified: it is still the backing map, and it
+         * is not shared.
+         *
+         * @return true if {@link #iteratedMap} may be modified
+         */
+        protected boolean iteratedMapIsWritable() {
+            return map == iteratedMap && !shared;
+        }
+
+        /**
+         * Returns the next entry of {@link #iteratedMap}.
+         *
+         * @return the next entry of {@link #iteratedMap}
+         */
+        protected Map.Entry<K, V> nextEntry() {
+            Map.Entry<K, V> entry = delegate.next();
+            lastKey = entry.getKey();
+            canRemove = true;
+            return entry;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            canRemove = false;
+            if (iteratedMapIsWritable()) {
+                delegate.remove();
+            } else {
+                writableMap().remove(lastKey);
+            }
+        }
+    }
+
+    /** An iterator over the keys of a {@link CopyOnWriteHashMap}. */
+    private final class KeyIterator extends BackingMapIterator<K> {
+
+        @Override
+        public K next() {
+            return nextEntry().getKey();
+        }
+    }
+
+    /**
+     * An iterator over the entries of a {@link CopyOnWriteHashMap}. If the iterated backing map may
+     * be modified, it returns the entries of the backing map; otherwise, it returns a copy of each
+     * entry whose {@link Map.Entry#setValue} modifies a private copy of the backing map.
+     */
+    private final class EntryIterator extends BackingMapIterator<Map.Entry<K, V>> {
+
+        @Override
+        public Map.Entry<K, V> next() {
+            Map.Entry<K, V> entry = nextEntry();
+            if (iteratedMapIsWritable()) {
+                return entry;
+            }
+            return new SimpleEntry<K, V>(entry) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public V setValue(V value) {
+                    writableMap().put(getKey(), value);
+                    return super.setValue(value);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package org.checkerframework.framework.source;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Measures how much time a checker spends in each phase of type-checking, and how often some
+ * operations happen. Statistics are kept for the whole run, for each compilation unit, and for each
+ * top-level class. They are printed as JSON by {@link SourceChecker#printStats()} when the {@code
+ * -AresourceStats} command-line option is given.
+ *
+ * <p>A phase is timed by bracketing it with {@link #start} and {@link #stop}. If a phase is
+ * re-entered before it stops, as happens for recursive computations, only the outermost invocation
+ * is timed, but every invocation is counted. The times of different phases overlap: for example,
+ * the time of {@link #TYPE_CHECKING} includes the time of the flow analysis that the visitor
+ * triggers.
+ *
+ * <p>If the JVM supports it, the profiler also records the bytes allocated by each phase: in total,
+ * and at most in one outermost invocation, such as the construction of the control flow graph of
+ * one method. These are allocated bytes, including objects that became garbage during the phase;
+ * they are not the memory that the phase retained or needed at its peak.
+ *
+ * <p>If the profiler is disabled, all methods return immediately.
+ */
+public class PhaseProfiler {
+
+    /** The phase of parsing stub files. */
+    public static final String STUB_PARSING = "stubParsing";
+
+    /** The phase of computing annotated types from trees, in {@code TypeFromTree}. */
+    public static final String TYPE_FROM_TREE = "typeFromTree";
+
+    /** The phase of building control flow graphs. */
+    public static final String CFG_CONSTRUCTION = "cfgConstruction";
+
+    /** The phase of running the dataflow analysis to a fixpoint. */
+    public static final String FLOW_ANALYSIS = "flowAnalysis";
+
+    /** The phase of visiting a class with the checker's visitor. */
+    public static final String TYPE_CHECKING = "typeChecking";
+
+    /** Subtype tests between annotated types, in {@code DefaultTypeHierarchy}. */
+    public static final String IS_SUBTYPE = "isSubtype";
+
+    /** Whether the profiler records anything. */
+    private final boolean enabled;
+
+    /**
+     * The bean that reports the bytes allocated by a thread, or null if the JVM does not support
+     * it.
+     */
+    private final com.sun.management.@Nullable ThreadMXBean allocationBean;
+
+    /** The statistics of the whole run. */
+    private final Statistics total = new Statistics();
+
+    /** The statistics of each compilation unit, by file name. */
+    private final Map<String, Statistics> compilationUnits = new LinkedHashMap<>();
+
+    /** The statistics of each top-level class, by fully-qualified name. */
+    private final Map<String, Statistics> classes = new LinkedHashMap<>();
+
+    /** The hits and misses of each cache, by name. Each value is {hits, misses}. */
+    private final Map<String, long[]> caches = new LinkedHashMap<>();
+
+    /**
+     * The nesting depth, start time, and allocated bytes at the start of each running phase, by
+     * phase name.
+     */
+    private final Map<String, long[]> running = new LinkedHashMap<>();
+
+    /** The statistics of the current compilation unit, or null if there is none. */
+    private @Nullable Statistics currentCompilationUnit;
+
+    /** The statistics of the current top-level class, or null if there is none. */
+    private @Nullable Statistics currentClass;
+
+    /**
+     * Creates a new profiler.
+     *
+     * @param enabled whether the profiler records anything
+     */
+    public PhaseProfiler(boolean enabled) {
+        this.enabled = enabled;
+        ThreadMXBean threadBean = enabled ? ManagementFactory.getThreadMXBean() : null;
+        if (threadBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadBean)
+                        .isThreadAllocatedMemorySupported()) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+            bean.setThreadAllocatedMemoryEnabled(true);
+            this.allocationBean = bean;
+        } else {
+            this.allocationBean = null;
+        }
+    }
+
+    /**
+     * Returns the number of bytes that the current thread has allocated so far, or 0 if the JVM
+     * does not report it.
+     *
+     * @return the number of bytes that the current thread has allocated so far
+     */
+    private long allocatedBytes() {
+        return allocationBean == null
+                ? 0
+                : allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Returns true if this profiler records statistics.
+     *
+     * @return true if this profiler records statistics
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Attributes the following measurements to the given compilation unit.
+     *
+     * @param fileName the file name of the compilation unit
+     */
+    public void setCompilationUnit(String fileName) {
+        if (enabled) {
+            currentCompilationUnit =
+                    compilationUnits.computeIfAbsent(fileName, k -> new Statistics());
+        }
+    }
+
+    /**
+     * Attributes the following measurements to the given top-level class, until {@link
+     * #setClass} is called again.
+     *
+     * @param className the fully-qualified name of the class, or null if the following
+     *     measurements do not belong to a class
+     */
+    public void setClass(@Nullable String className) {
+        if (enabled) {
+            currentClass =
+                    className == null
+                            ? null
+                            : classes.computeIfAbsent(className, k -> new Statistics());
+        }
+    }
+
+    /**
+     * Marks the start of an invocation of the given phase. Every call must be followed by a call
+     * to {@link #stop} with the same phase, usually in a {@code finally} block.
+     *
+     * @param phase the name of the phase
+     */
+    public void start(String phase) {
+        if (!enabled) {
+            return;
+        }
+        long[] state = running.computeIfAbsent(phase, k -> new long[3]);
+        if (state[0]++ == 0) {
+            state[2] = allocatedBytes();
+            state[1] = System.nanoTime();
+        }
+    }
+
+    /**
+     * Marks the end of an invocation of the given phase, which was started by {@link #start}.
+     *
+     * @param phase the name of the phase
+     */
+    public void stop(String phase) {
+        if (!enabled) {
+            return;
+        }
+        long[] state = running.get(phase);
+        if (state == null || state[0] == 0) {
+            return;
+        }
+        long nanos = 0;
+        long bytes = 0;
+        if (--state[0] == 0) {
+            nanos = System.nanoTime() - state[1];
+            bytes = allocatedBytes() - state[2];
+        }
+        total.add(phase, nanos, bytes);
+        if (currentCompilationUnit != null) {
+            currentCompilationUnit.add(phase, nanos, bytes);
+        }
+        if (currentClass != null) {
+            currentClass.add(phase, nanos, bytes);
+        }
+    }
+
+    /**
+     * Records an access to the given cache.
+     *
+     * @param cache the name of the cache
+     * @param hit true if the cache contained the requested entry
+     */
+    public void cacheAccess(String cache, boolean hit) {
+        if (enabled) {
+            caches.computeIfAbsent(cache, k -> new long[2])[hit ? 0 : 1]++;
+        }
+    }
+
+    /**
+     * Returns the number of hits of the given cache recorded so far.
+     *
+     * @param cache the name of the cache
+     * @return the number of hits of {@code cache}, or 0 if this profiler is not enabled
+     */
+    public long getCacheHits(String cache) {
+        long[] accesses = caches.get(cache);
+        return accesses == null ? 0 : accesses[0];
+    }
+
+    /**
+     * Returns the number of misses of the given cache recorded so far.
+     *
+     * @param cache the name of the cache
+     * @return the number of misses of {@code cache}, or 0 if this profiler is not enabled
+     */
+    public long getCacheMisses(String cache) {
+        long[] accesses = caches.get(cache);
+        return accesses == null ? 0 : accesses[1];
+    }
+
+    /**
+     * Returns the statistics recorded so far, and the peak usage of each memory pool of the JVM, as
+     * a JSON object.
+     *
+     * @param checkerName the name of the checker to which the statistics belong
+     * @return the statistics as a JSON object
+     */
+    public String toJson(String checkerName) {
+        StringJoiner pools = new StringJoiner(",", "[", "]");
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage peak = memoryPool.getPeakUsage();
+            pools.add(
+                    "{\"name\":"
+                            + quote(memoryPool.getName())
+                            + ",\"type\":"
+                            + quote(memoryPool.getType().toString())
+                            + ",\"peakUsed\":"
+                            + peak.getUsed()
+                            + ",\"peakCommitted\":"
+                            + peak.getCommitted()
+                            + ",\"max\":"
+                            + peak.getMax()
+                            + "}");
+        }
+        StringJoiner cacheStats = new StringJoiner(",", "{", "}");
+        for (Map.Entry<String, long[]> cache : caches.entrySet()) {
+            long hits = cache.getValue()[0];
+            long misses = cache.getValue()[1];
+            cacheStats.add(
+                    quote(cache.getKey())
+                            + ":{\"hits\":"
+                            + hits
+                            + ",\"misses\":"
+                            + misses
+                            + ",\"hitRate\":"
+                            + String.format(Locale.ROOT, "%.4f", (double) hits / (hits + misses))
+                            + "}");
+        }
+        return "{\"checker\":"
+                + quote(checkerName)
+                + ",\"memoryPools\":"
+                + pools
+                + ",\"phases\":"
+                + total.toJson()
+                + ",\"caches\":"
+                + cacheStats
+                + ",\"compilationUnits\":"
+                + toJson(compilationUnits)
+                + ",\"classes\":"
+                + toJson(classes)
+                + "}";
+    }
+
+    /**
+     * Returns the given statistics as a JSON object.
+     *
+     * @param statistics statistics, by the name of the compilation unit or class they belong to
+     * @return the statistics as a JSON object
+     */
+    private static String toJson(Map<String, Statistics> statistics) {
+        StringJoiner result = new StringJoiner(",", "{", "}");
+        for (Map.Entry<String, Statistics> entry : statistics.entrySet()) {
+            result.add(quote(entry.getKey()) + ":" + entry.getValue().toJson());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the given string as a JSON string literal.
+     *
+     * @param s a string
+     * @return {@code s} as a JSON string literal
+     */
+    private static String quote(String s) {
+        StringBuilder result = new StringBuilder(s.length() + 2);
+        result.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < 0x20) {
+                result.append(String.format("\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * The number of invocations, the time, and the allocated bytes of each phase, for one scope of
+     * the program.
+     */
+    private static class Statistics {
+
+        /**
+         * The number of invocations, the nanoseconds, the allocated bytes, and the most bytes
+         * allocated by one invocation of each phase, by phase name.
+         */
+        private final Map<String, long[]> phases = new LinkedHashMap<>();
+
+        /**
+         * Records one invocation of the given phase.
+         *
+         * @param phase the name of the phase
+         * @param nanos the time of the invocation in nanoseconds, or 0 for a nested invocation
+         * @param bytes the bytes allocated by the invocation, or 0 for a nested invocation
+         */
+        void add(String phase, long nanos, long bytes) {
+            long[] stats = phases.computeIfAbsent(phase, k -> new long[4]);
+            stats[0]++;
+            stats[1] += nanos;
+            stats[2] += bytes;
+            stats[3] = Math.max(stats[3], bytes);
+        }
+
+        /**
+         * Returns these statistics as a JSON object that maps each phase to its count, its time in
+         * milliseconds, the bytes it allocated, and the most bytes allocated by one invocation.
+         *
+         * @return these statistics as a JSON object
+         */
+        String toJson() {
+            StringJoiner result = new StringJoiner(",", "{", "}");
+            for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+                long[] stats = phase.getValue();
+                result.add(
+                        quote(phase.getKey())
+                                + ":{\"count\":"
+                                + stats[0]
+                                + ",\"millis\":"
+                                + String.format(Locale.ROOT, "%.3f", stats[1] / 1_000_000.0)
+                                + ",\"allocatedBytes\":"
+                                + stats[2]
+                                + ",\"maxAllocatedBytes\":"
+                                + stats[3]
+                                + "}");
+            }
+            return result.toString();
+        }
+    }
+}
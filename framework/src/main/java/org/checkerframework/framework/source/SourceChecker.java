@@ -8,6 +8,7 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.SourcePositions;
 import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.code.Source;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
@@ -19,8 +20,6 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.management.ManagementFactory;
-import java.lang.management.MemoryPoolMXBean;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.time.Instant;
@@ -31,6 +30,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
@@ -40,6 +40,7 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.StringJoiner;
 import java.util.TreeSet;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Messager;
@@ -56,6 +57,7 @@ import javax.tools.Diagnostic;
 import javax.tools.Diagnostic.Kind;
 import org.checkerframework.checker.compilermsgs.qual.CompilerMessageKey;
 import org.checkerframework.checker.interning.qual.InternedDistinct;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.framework.qual.AnnotatedFor;
@@ -218,6 +220,10 @@ import org.plumelib.util.UtilPlume;
     // org.checkerframework.framework.type.ElementAnnotationApplier.apply
     "ignoreInvalidAnnotationLocations",
 
+    // Widen only at the loop heads of the control flow graph, rather than at every block
+    // org.checkerframework.dataflow.analysis.ForwardAnalysisImpl.setWidenOnlyAtLoopHeads(boolean)
+    "flowWidenOnlyAtLoopHeads",
+
     ///
     /// Partially-annotated libraries
     ///
@@ -362,6 +368,11 @@ import org.plumelib.util.UtilPlume;
     // Sets AnnotatedTypeFactory shouldCache to false
     "atfDoNotCache",
 
+    // Cache the store after every n-th node of a basic block, rather than after every node,
+    // when the store at a node is requested after the flow analysis
+    // org.checkerframework.dataflow.analysis.ForwardAnalysisImpl.setCheckpointInterval(int)
+    "flowCheckpointInterval",
+
     /// Miscellaneous debugging options
 
     // Whether to output resource statistics at JVM shutdown
@@ -409,6 +420,25 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     /** The source tree that is being scanned. */
     protected @InternedDistinct CompilationUnitTree currentRoot;
 
+    /**
+     * The innermost declarations that enclose each tree of {@link #currentRoot}, or null if they
+     * have not been computed yet. Computed on demand by {@link #shouldSuppressWarnings(Tree,
+     * String)}, in one scan of the compilation unit.
+     */
+    private @Nullable IdentityHashMap<Tree, EnclosingDeclarations> enclosingDeclarations;
+
+    /**
+     * The lower-case strings of the {@code @SuppressWarnings} annotation of each element, or an
+     * empty array if it has none. Cleared when the compilation unit changes.
+     */
+    private final Map<Element, String[]> suppressWarningsStringsOfElement = new HashMap<>();
+
+    /**
+     * Whether each element has an {@code @AnnotatedFor} annotation for this checker or an upstream
+     * checker. Cleared when the compilation unit changes.
+     */
+    private final Map<Element, Boolean> annotatedForThisChecker = new HashMap<>();
+
     /**
      * If an error is detected in a CompilationUnitTree, skip all future calls of {@link
      * #typeProcess} with that same CompilationUnitTree.
@@ -425,22 +455,29 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     private String @Nullable [] suppressWarningsStringsFromOption;
 
     /**
-     * Regular expression pattern to specify Java classes that are not annotated, so warnings about
-     * uses of them should be suppressed.
+     * Matches Java classes that are not annotated, so warnings about uses of them should be
+     * suppressed.
      *
-     * <p>It contains the pattern specified by the user, through the option {@code
-     * checkers.skipUses}; otherwise it contains a pattern that can match no class.
+     * <p>It matches the regular expression or the name prefixes specified by the user, through the
+     * option {@code checkers.skipUses}; otherwise it matches no class.
      */
-    private Pattern skipUsesPattern;
+    private Predicate<String> skipUsesMatcher;
 
     /**
-     * Regular expression pattern to specify Java classes that are annotated, so warnings about them
-     * should be issued but warnings about all other classes should be suppressed.
+     * Matches Java classes that are annotated, so warnings about them should be issued but warnings
+     * about all other classes should be suppressed.
      *
-     * <p>It contains the pattern specified by the user, through the option {@code
-     * checkers.onlyUses}; otherwise it contains a pattern that matches every class.
+     * <p>It matches the regular expression or the name prefixes specified by the user, through the
+     * option {@code checkers.onlyUses}; otherwise it matches every class.
+     */
+    private Predicate<String> onlyUsesMatcher;
+
+    /**
+     * The result of {@link #shouldSkipUses(Element)} for the classes that own the elements it has
+     * been called on. Kept for the whole compilation, because it depends only on the class.
      */
-    private Pattern onlyUsesPattern;
+    private final IdentityHashMap<TypeElement, Boolean> shouldSkipUsesCache =
+            new IdentityHashMap<>();
 
     /**
      * Regular expression pattern to specify Java classes whose definition should not be checked.
@@ -495,6 +532,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     /** List of upstream checker names. Includes the current checker. */
     protected List<String> upstreamCheckerNames;
 
+    /** The profiler of this checker, created on demand by {@link #getPhaseProfiler}. */
+    private @MonotonicNonNull PhaseProfiler phaseProfiler;
+
     @Override
     public final synchronized void init(ProcessingEnvironment env) {
         super.init(env);
@@ -569,6 +609,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     protected void setRoot(CompilationUnitTree newRoot) {
         this.currentRoot = newRoot;
         visitor.setRoot(currentRoot);
+        enclosingDeclarations = null;
+        suppressWarningsStringsOfElement.clear();
+        annotatedForThisChecker.clear();
     }
 
     /**
@@ -734,12 +777,99 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         return Pattern.compile(pattern);
     }
 
-    private Pattern getSkipUsesPattern(Map<String, String> options) {
-        return getSkipPattern("skipUses", options);
+    /**
+     * Returns a matcher for the given pattern. If the pattern contains a comma, and otherwise only
+     * Java identifier characters and dots, it is a comma-separated list of name prefixes, such as
+     * {@code java.awt,javax.swing}: it matches a name that is equal to one of the prefixes, or
+     * starts with one of them followed by a dot. (As a regular expression, such a pattern would
+     * match no class name, because class names contain no commas.) Otherwise, it matches a name
+     * that contains a match of the pattern.
+     *
+     * @param pattern a regular expression or a comma-separated list of name prefixes
+     * @return a matcher for {@code pattern}
+     */
+    private static Predicate<String> getNameMatcher(Pattern pattern) {
+        String regex = pattern.pattern();
+        if (regex.indexOf(',') == -1 || !NAME_PREFIX_LIST.matcher(regex).matches()) {
+            return pattern.asPredicate();
+        }
+        NamePrefixTrie trie = new NamePrefixTrie();
+        for (String prefix : regex.split(",")) {
+            trie.add(prefix);
+        }
+        return trie::matches;
     }
 
-    private Pattern getOnlyUsesPattern(Map<String, String> options) {
-        return getOnlyPattern("onlyUses", options);
+    /** Matches a comma-separated list of names, possibly with empty elements. */
+    private static final Pattern NAME_PREFIX_LIST =
+            Pattern.compile("[\\p{javaJavaIdentifierPart}.,]+");
+
+    private Predicate<String> getSkipUsesMatcher(Map<String, String> options) {
+        return getNameMatcher(getSkipPattern("skipUses", options));
+    }
+
+    private Predicate<String> getOnlyUsesMatcher(Map<String, String> options) {
+        return getNameMatcher(getOnlyPattern("onlyUses", options));
+    }
+
+    /**
+     * A set of qualified-name prefixes, stored as a trie of name segments, so that testing whether
+     * a name starts with one of the prefixes takes time proportional to the length of the name
+     * rather than to the number of prefixes.
+     */
+    private static final class NamePrefixTrie {
+
+        /** The children of this node, by name segment. */
+        private final Map<String, NamePrefixTrie> children = new HashMap<>();
+
+        /** True if the segments on the path to this node form one of the prefixes. */
+        private boolean isPrefix = false;
+
+        /**
+         * Adds a prefix to this trie.
+         *
+         * @param prefix a qualified name, such as {@code java.util}; a trailing dot is ignored
+         */
+        void add(String prefix) {
+            NamePrefixTrie node = this;
+            boolean empty = true;
+            for (String segment : prefix.split("\\.")) {
+                if (!segment.isEmpty()) {
+                    node = node.children.computeIfAbsent(segment, k -> new NamePrefixTrie());
+                    empty = false;
+                }
+            }
+            if (!empty) {
+                node.isPrefix = true;
+            }
+        }
+
+        /**
+         * Returns true if the given name is equal to one of the prefixes of this trie, or starts
+         * with one of them followed by a dot.
+         *
+         * @param name a qualified name
+         * @return true if {@code name} starts with one of the prefixes of this trie
+         */
+        boolean matches(String name) {
+            NamePrefixTrie node = this;
+            int start = 0;
+            while (!node.isPrefix) {
+                if (start > name.length()) {
+                    return false;
+                }
+                int end = name.indexOf('.', start);
+                if (end == -1) {
+                    end = name.length();
+                }
+                node = node.children.get(name.substring(start, end));
+                if (node == null) {
+                    return false;
+                }
+                start = end + 1;
+            }
+            return true;
+        }
     }
 
     private Pattern getSkipDefsPattern(Map<String, String> options) {
@@ -888,8 +1018,10 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             // logged there. Don't also cause a NPE here.
             return;
         }
+        PhaseProfiler profiler = getPhaseProfiler();
         if (p.getCompilationUnit() != currentRoot) {
             setRoot(p.getCompilationUnit());
+            profiler.setCompilationUnit(currentRoot.getSourceFile().getName());
             if (hasOption("filenames")) {
                 // TODO: Have a command-line option to turn the timestamps on/off too, because
                 // they are nondeterministic across runs.
@@ -907,6 +1039,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         }
 
         // Visit the attributed tree.
+        profiler.setClass(e.getQualifiedName().toString());
+        profiler.start(PhaseProfiler.TYPE_CHECKING);
         try {
             visitor.visit(p);
             warnUnneededSuppressions();
@@ -922,6 +1056,8 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             // Also add possibly deferred diagnostics, which will get published back in
             // AbstractTypeProcessor.
             this.errsOnLastExit = log.nerrors;
+            profiler.stop(PhaseProfiler.TYPE_CHECKING);
+            profiler.setClass(null);
         }
     }
 
@@ -1940,15 +2076,21 @@ public abstract class SourceChecker extends AbstractTypeProcessor
                     "Checker must provide a SuppressWarnings prefix. SourceChecker#getSuppressWarningsPrefixes was not overridden correctly.");
         }
 
-        // trees.getPath might be slow, but this is only used in error reporting
-        @Nullable TreePath path = trees.getPath(this.currentRoot, tree);
+        if (enclosingDeclarations == null) {
+            enclosingDeclarations = computeEnclosingDeclarations(currentRoot);
+        }
+        // Null if the tree is not part of the current compilation unit.
+        @Nullable EnclosingDeclarations enclosing = enclosingDeclarations.get(tree);
+        if (enclosing == null) {
+            return useConservativeDefault("source");
+        }
 
-        @Nullable VariableTree var = TreeUtils.enclosingVariable(path);
+        @Nullable VariableTree var = enclosing.variable;
         if (var != null && shouldSuppressWarnings(TreeUtils.elementFromTree(var), errKey)) {
             return true;
         }
 
-        @Nullable MethodTree method = TreeUtils.enclosingMethod(path);
+        @Nullable MethodTree method = enclosing.method;
         if (method != null) {
             @Nullable Element elt = TreeUtils.elementFromTree(method);
 
@@ -1964,7 +2106,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             }
         }
 
-        @Nullable ClassTree cls = TreeUtils.enclosingClass(path);
+        @Nullable ClassTree cls = enclosing.cls;
         if (cls != null) {
             @Nullable Element elt = TreeUtils.elementFromTree(cls);
 
@@ -2056,17 +2198,15 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         }
 
         while (elt != null) {
-            SuppressWarnings suppressWarningsAnno = elt.getAnnotation(SuppressWarnings.class);
-            if (suppressWarningsAnno != null) {
-                String[] suppressWarningsStrings = suppressWarningsAnno.value();
-                Arrays.setAll(
-                        suppressWarningsStrings, i -> suppressWarningsStrings[i].toLowerCase());
-                if (shouldSuppress(suppressWarningsStrings, errKey)) {
-                    if (hasOption("warnUnneededSuppressions")) {
-                        elementsWithSuppressedWarnings.add(elt);
-                    }
-                    return true;
+            String[] suppressWarningsStrings =
+                    suppressWarningsStringsOfElement.computeIfAbsent(
+                            elt, SourceChecker::getSuppressWarningsStrings);
+            if (suppressWarningsStrings.length != 0
+                    && shouldSuppress(suppressWarningsStrings, errKey)) {
+                if (hasOption("warnUnneededSuppressions")) {
+                    elementsWithSuppressedWarnings.add(elt);
                 }
+                return true;
             }
             if (isAnnotatedForThisCheckerOrUpstreamChecker(elt)) {
                 // Return false immediately. Do NOT check for AnnotatedFor in the
@@ -2078,6 +2218,95 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         return false;
     }
 
+    /**
+     * Returns the lower-case strings of the {@code @SuppressWarnings} annotation of the given
+     * element.
+     *
+     * @param elt an element
+     * @return the lower-case strings of the {@code @SuppressWarnings} annotation of {@code elt}, or
+     *     an empty array if it has none
+     */
+    private static String[] getSuppressWarningsStrings(Element elt) {
+        SuppressWarnings suppressWarningsAnno = elt.getAnnotation(SuppressWarnings.class);
+        if (suppressWarningsAnno == null) {
+            return new String[0];
+        }
+        String[] suppressWarningsStrings = suppressWarningsAnno.value();
+        Arrays.setAll(suppressWarningsStrings, i -> suppressWarningsStrings[i].toLowerCase());
+        return suppressWarningsStrings;
+    }
+
+    /**
+     * Returns the innermost variable, method, and class declarations that enclose each tree of the
+     * given compilation unit. A declaration encloses itself. The result contains exactly the trees
+     * for which {@code trees.getPath(root, tree)} is non-null, and for each of them the
+     * declarations that {@link TreeUtils#enclosingVariable}, {@link TreeUtils#enclosingMethod},
+     * and {@link TreeUtils#enclosingClass} return for that path.
+     *
+     * @param root a compilation unit
+     * @return the innermost declarations that enclose each tree of {@code root}
+     */
+    private static IdentityHashMap<Tree, EnclosingDeclarations> computeEnclosingDeclarations(
+            CompilationUnitTree root) {
+        IdentityHashMap<Tree, EnclosingDeclarations> result = new IdentityHashMap<>();
+        new TreeScanner<Void, EnclosingDeclarations>() {
+            @Override
+            public Void scan(Tree tree, EnclosingDeclarations enclosing) {
+                if (tree == null) {
+                    return null;
+                }
+                EnclosingDeclarations inner;
+                if (tree.getKind() == Tree.Kind.VARIABLE) {
+                    inner =
+                            new EnclosingDeclarations(
+                                    (VariableTree) tree, enclosing.method, enclosing.cls);
+                } else if (tree.getKind() == Tree.Kind.METHOD) {
+                    inner =
+                            new EnclosingDeclarations(
+                                    enclosing.variable, (MethodTree) tree, enclosing.cls);
+                } else if (TreeUtils.classTreeKinds().contains(tree.getKind())) {
+                    inner =
+                            new EnclosingDeclarations(
+                                    enclosing.variable, enclosing.method, (ClassTree) tree);
+                } else {
+                    inner = enclosing;
+                }
+                result.put(tree, inner);
+                return super.scan(tree, inner);
+            }
+        }.scan(root, new EnclosingDeclarations(null, null, null));
+        return result;
+    }
+
+    /** The innermost variable, method, and class declarations that enclose a tree. */
+    private static final class EnclosingDeclarations {
+
+        /** The innermost enclosing variable declaration, or null if there is none. */
+        final @Nullable VariableTree variable;
+
+        /** The innermost enclosing method declaration, or null if there is none. */
+        final @Nullable MethodTree method;
+
+        /** The innermost enclosing class declaration, or null if there is none. */
+        final @Nullable ClassTree cls;
+
+        /**
+         * Creates an EnclosingDeclarations.
+         *
+         * @param variable the innermost enclosing variable declaration, or null if there is none
+         * @param method the innermost enclosing method declaration, or null if there is none
+         * @param cls the innermost enclosing class declaration, or null if there is none
+         */
+        EnclosingDeclarations(
+                @Nullable VariableTree variable,
+                @Nullable MethodTree method,
+                @Nullable ClassTree cls) {
+            this.variable = variable;
+            this.method = method;
+            this.cls = cls;
+        }
+    }
+
     /**
      * Determines whether an error (whose message key is {@code messageKey}) should be suppressed.
      * It is suppressed if any of the given SuppressWarnings strings suppresses it.
@@ -2190,6 +2419,18 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return false;
         }
 
+        return annotatedForThisChecker.computeIfAbsent(elt, this::isAnnotatedForThisChecker);
+    }
+
+    /**
+     * Return true if the element has an {@code @AnnotatedFor} annotation, for this checker or an
+     * upstream checker that called this one. Does not use the cache of {@link
+     * #isAnnotatedForThisCheckerOrUpstreamChecker}.
+     *
+     * @param elt the source code element to check
+     * @return true if the element is annotated for this checker or an upstream checker
+     */
+    private boolean isAnnotatedForThisChecker(Element elt) {
         @Nullable AnnotatedFor anno = elt.getAnnotation(AnnotatedFor.class);
 
         String[] userAnnotatedFors = (anno == null ? null : anno.value());
@@ -2287,8 +2528,12 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return false;
         }
         TypeElement typeElement = ElementUtils.enclosingClass(element);
-        String name = typeElement.toString();
-        return shouldSkipUses(name);
+        Boolean result = shouldSkipUsesCache.get(typeElement);
+        if (result == null) {
+            result = shouldSkipUses(typeElement.toString());
+            shouldSkipUsesCache.put(typeElement, result);
+        }
+        return result;
     }
 
     /**
@@ -2307,23 +2552,22 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         // System.out.printf("shouldSkipUses(%s) %s%nskipUses %s%nonlyUses %s%nresult %s%n",
         //                   element,
         //                   name,
-        //                   skipUsesPattern.matcher(name).find(),
-        //                   onlyUsesPattern.matcher(name).find(),
-        //                   (skipUsesPattern.matcher(name).find()
-        //                    || ! onlyUsesPattern.matcher(name).find()));
+        //                   skipUsesMatcher.test(name),
+        //                   onlyUsesMatcher.test(name),
+        //                   (skipUsesMatcher.test(name)
+        //                    || ! onlyUsesMatcher.test(name)));
         // StackTraceElement[] stea = new Throwable().getStackTrace();
         // for (int i=0; i<3; i++) {
         //     System.out.println("  " + stea[i]);
         // }
         // System.out.println();
-        if (skipUsesPattern == null) {
-            skipUsesPattern = getSkipUsesPattern(getOptions());
+        if (skipUsesMatcher == null) {
+            skipUsesMatcher = getSkipUsesMatcher(getOptions());
         }
-        if (onlyUsesPattern == null) {
-            onlyUsesPattern = getOnlyUsesPattern(getOptions());
+        if (onlyUsesMatcher == null) {
+            onlyUsesMatcher = getOnlyUsesMatcher(getOptions());
         }
-        return skipUsesPattern.matcher(typeName).find()
-                || !onlyUsesPattern.matcher(typeName).find();
+        return skipUsesMatcher.test(typeName) || !onlyUsesMatcher.test(typeName);
     }
 
     /**
@@ -2513,14 +2757,25 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         }
     }
 
-    /** Print resource usage statistics. */
+    /**
+     * Print resource usage statistics: the peak usage of the JVM's memory pools and the statistics
+     * of this checker's {@link PhaseProfiler}, as a single line of JSON.
+     */
     protected void printStats() {
-        List<MemoryPoolMXBean> memoryPools = ManagementFactory.getMemoryPoolMXBeans();
-        for (MemoryPoolMXBean memoryPool : memoryPools) {
-            System.out.println("Memory pool " + memoryPool.getName() + " statistics");
-            System.out.println("  Pool type: " + memoryPool.getType());
-            System.out.println("  Peak usage: " + memoryPool.getPeakUsage());
+        System.out.println(getPhaseProfiler().toJson(this.getClass().getName()));
+    }
+
+    /**
+     * Returns the profiler that records the time spent in each phase of type-checking. It records
+     * nothing unless the {@code -AresourceStats} command-line option is given.
+     *
+     * @return the profiler of this checker
+     */
+    public PhaseProfiler getPhaseProfiler() {
+        if (phaseProfiler == null) {
+            phaseProfiler = new PhaseProfiler(hasOption("resourceStats"));
         }
+        return phaseProfiler;
     }
 
     ///////////////////////////////////////////////////////////////////////////
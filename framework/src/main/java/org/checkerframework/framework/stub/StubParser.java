@@ -44,8 +44,15 @@ import com.github.javaparser.ast.type.ReferenceType;
 import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.ast.type.TypeParameter;
 import com.github.javaparser.ast.type.WildcardType;
+import com.github.javaparser.ast.visitor.CloneVisitor;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Target;
+import java.lang.ref.SoftReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -82,6 +89,7 @@ import org.checkerframework.framework.type.AnnotatedTypeReplacer;
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.Pair;
 
@@ -192,6 +200,26 @@ public class StubParser {
     /** Whether or not the stub file is a part of the JDK. */
     private final boolean isJdkAsStub;
 
+    /** The maximum number of entries in {@link #stubUnitCache}. */
+    private static final int STUB_UNIT_CACHE_SIZE = 1000;
+
+    /**
+     * Cache of the ASTs of stub files, keyed by the SHA-256 digest of the stub file's contents.
+     *
+     * <p>Parsing a stub file does not depend on the compilation, so the AST of a stub file can be
+     * reused by every compilation that runs in this JVM. That is the case for every compilation in
+     * a build daemon, and most stub files (jdk.astub, the stub files of a checker, and the files of
+     * the annotated JDK) are identical across compilations. The values are soft references, so the
+     * ASTs are freed if memory runs low.
+     *
+     * <p>A cached AST is never processed: {@link #parseStubUnitCached} returns a copy of it. The
+     * nodes of a JavaParser AST have mutable state, such as their data and their parent, so an AST
+     * must not be shared by compilations that may run concurrently, as the tests of the Checker
+     * Framework do. Copying an AST only reads the cached AST, and is much faster than parsing.
+     */
+    private static final Map<String, SoftReference<StubUnit>> stubUnitCache =
+            Collections.synchronizedMap(CollectionUtils.createLRUCache(STUB_UNIT_CACHE_SIZE));
+
     /**
      * Create a new StubParser object, which will parse and extract annotations from the given stub
      * file.
@@ -510,7 +538,7 @@ public class StubParser {
         if (debugStubParser) {
             stubDebug(String.format("parsing stub file %s", filename));
         }
-        stubUnit = StaticJavaParser.parseStubUnit(inputStream);
+        stubUnit = parseStubUnitCached(inputStream);
 
         // getAllStubAnnotations() also modifies importedConstants and importedTypes. This should
         // be refactored to be nicer.
@@ -527,6 +555,65 @@ public class StubParser {
         allStubAnnotations.putAll(annosInPackage(findPackage("java.lang")));
     }
 
+    /**
+     * Returns the AST of the stub file read from {@code inputStream}. The result is a copy of the
+     * AST in {@link #stubUnitCache}, which is filled if no stub file with the same contents has
+     * been parsed in this JVM yet. The caller may modify the result.
+     *
+     * @param inputStream the stream from which to read a stub file
+     * @return the AST of the stub file
+     * @throws ParseProblemException if the stub file cannot be read or parsed
+     */
+    private StubUnit parseStubUnitCached(InputStream inputStream) {
+        byte[] contents;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int length;
+            while ((length = inputStream.read(chunk)) != -1) {
+                buffer.write(chunk, 0, length);
+            }
+            contents = buffer.toByteArray();
+        } catch (IOException e) {
+            throw new ParseProblemException(e);
+        }
+
+        String key = digest(contents);
+        SoftReference<StubUnit> cached = stubUnitCache.get(key);
+        StubUnit original = cached == null ? null : cached.get();
+        if (original != null) {
+            if (debugStubParser) {
+                stubDebug(String.format("reusing the parse of stub file %s", filename));
+            }
+        } else {
+            original = StaticJavaParser.parseStubUnit(new ByteArrayInputStream(contents));
+            stubUnitCache.put(key, new SoftReference<>(original));
+        }
+        // The copy keeps the positions of the original, which warnings refer to.
+        return (StubUnit) original.accept(new CloneVisitor(), null);
+    }
+
+    /**
+     * Returns the SHA-256 digest of {@code contents}, as a hexadecimal string.
+     *
+     * @param contents the contents of a stub file
+     * @return the SHA-256 digest of {@code contents}
+     */
+    private static String digest(byte[] contents) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new BugInCF("Every Java platform must support SHA-256", e);
+        }
+        byte[] hash = sha256.digest(contents);
+        StringBuilder result = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
     /** Process {@link #stubUnit}, which is the AST produced by {@link #parseStubUnit}. */
     private void process() {
         processStubUnit(this.stubUnit);
@@ -2102,8 +2189,9 @@ public class StubParser {
     /// Issue warnings
     ///
 
-    // The warnings that have been issued so far.
-    private static final Set<String> warnings = new HashSet<>();
+    // The warnings that have been issued so far. Synchronized, because checkers may run in several
+    // threads of a JVM, as the tests do.
+    private static final Set<String> warnings = Collections.synchronizedSet(new HashSet<>());
 
     /**
      * Issues the given warning about missing elements, only if it has not been previously issued
@@ -37,6 +37,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.processing.ProcessingEnvironment;
@@ -76,6 +77,7 @@ import org.checkerframework.framework.qual.InheritedAnnotation;
 import org.checkerframework.framework.qual.NoQualifierParameter;
 import org.checkerframework.framework.qual.PolymorphicQualifier;
 import org.checkerframework.framework.qual.SubtypeOf;
+import org.checkerframework.framework.source.PhaseProfiler;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.stub.StubTypes;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
@@ -314,7 +316,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             declAliases = new HashMap<>();
 
     /** Unique ID counter; for debugging purposes. */
-    private static int uidCounter = 0;
+    private static final AtomicInteger uidCounter = new AtomicInteger(0);
 
     /** Unique ID of the current object; for debugging purposes. */
     public final int uid;
@@ -371,12 +373,23 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      */
     private final Map<Element, AnnotatedTypeMirror> elementCache;
 
+    /**
+     * Mapping from an Element that has no source code, such as a JDK or library element, to its
+     * annotated type; before defaults are applied, just what is written in bytecode and stub files.
+     * It is separate from {@link #elementCache} so that the types of library elements, which are
+     * used all over the program, are not evicted by the types of source elements.
+     */
+    private final Map<Element, AnnotatedTypeMirror> libraryElementCache;
+
     /** Mapping from an Element to the source Tree of the declaration. */
     private final Map<Element, Tree> elementToTreeCache;
 
     /** Mapping from a Tree to its TreePath. Shared between all instances. */
     private final TreePathCacher treePathCache;
 
+    /** The profiler of the checker, which records the phases of computing types. */
+    protected final PhaseProfiler profiler;
+
     /** Mapping from CFG generated trees to their enclosing elements. */
     private final Map<Tree, Element> artificialTreeToEnclosingElementMap;
 
@@ -409,7 +422,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @throws IllegalArgumentException if either argument is {@code null}
      */
     public AnnotatedTypeFactory(BaseTypeChecker checker) {
-        uid = ++uidCounter;
+        uid = uidCounter.incrementAndGet();
         this.processingEnv = checker.getProcessingEnvironment();
         // this.root = root;
         this.checker = checker;
@@ -427,6 +440,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         this.artificialTreeToEnclosingElementMap = new HashMap<>();
         // get the shared instance from the checker
         this.treePathCache = checker.getTreePathCacher();
+        this.profiler = checker.getPhaseProfiler();
 
         this.shouldCache = !checker.hasOption("atfDoNotCache");
         if (shouldCache) {
@@ -436,6 +450,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             this.fromMemberTreeCache = CollectionUtils.createLRUCache(cacheSize);
             this.fromTypeTreeCache = CollectionUtils.createLRUCache(cacheSize);
             this.elementCache = CollectionUtils.createLRUCache(cacheSize);
+            this.libraryElementCache = CollectionUtils.createLRUCache(cacheSize);
             this.elementToTreeCache = CollectionUtils.createLRUCache(cacheSize);
             this.annotationClassNames =
                     Collections.synchronizedMap(
@@ -446,6 +461,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             this.fromMemberTreeCache = null;
             this.fromTypeTreeCache = null;
             this.elementCache = null;
+            this.libraryElementCache = null;
             this.elementToTreeCache = null;
             this.annotationClassNames = null;
         }
@@ -646,9 +662,10 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             fromTypeTreeCache.clear();
             classAndMethodTreeCache.clear();
 
-            // There is no need to clear the following cache, it is limited by cache size and it
-            // contents won't change between compilation units.
+            // There is no need to clear the following caches, they are limited by cache size and
+            // their contents won't change between compilation units.
             // elementCache.clear();
+            // libraryElementCache.clear();
         }
     }
 
@@ -1067,8 +1084,12 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         if (tree == null) {
             throw new BugInCF("AnnotatedTypeFactory.getAnnotatedType: null tree");
         }
-        if (shouldCache && classAndMethodTreeCache.containsKey(tree)) {
-            return classAndMethodTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            boolean hit = classAndMethodTreeCache.containsKey(tree);
+            profiler.cacheAccess("classAndMethodTreeCache", hit);
+            if (hit) {
+                return classAndMethodTreeCache.get(tree).deepCopy();
+            }
         }
 
         AnnotatedTypeMirror type;
@@ -1196,8 +1217,15 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return AnnotatedTypeMirror of the element with explicitly-written and stub file annotations
      */
     public AnnotatedTypeMirror fromElement(Element elt) {
-        if (shouldCache && elementCache.containsKey(elt)) {
-            return elementCache.get(elt).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = elementCache.get(elt);
+            if (cached == null) {
+                cached = libraryElementCache.get(elt);
+            }
+            profiler.cacheAccess("elementCache", cached != null);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
         if (elt.getKind() == ElementKind.PACKAGE) {
             return toAnnotatedType(elt.asType(), false);
@@ -1239,7 +1267,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         // Caching is disabled if stub files are being parsed, because calls to this
         // method before the stub files are fully read can return incorrect results.
         if (shouldCache && !stubTypes.isParsing()) {
-            elementCache.put(elt, type.deepCopy());
+            if (decl == null) {
+                libraryElementCache.put(elt, type.deepCopy());
+            } else {
+                elementCache.put(elt, type.deepCopy());
+            }
         }
         return type;
     }
@@ -1251,7 +1283,12 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return AnnotatedDeclaredType with explicit annotations from {@code tree}
      */
     private AnnotatedDeclaredType fromClass(ClassTree tree) {
-        return TypeFromTree.fromClassTree(this, tree);
+        profiler.start(PhaseProfiler.TYPE_FROM_TREE);
+        try {
+            return TypeFromTree.fromClassTree(this, tree);
+        } finally {
+            profiler.stop(PhaseProfiler.TYPE_FROM_TREE);
+        }
     }
 
     /**
@@ -1270,10 +1307,20 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                     "AnnotatedTypeFactory.fromMember: not a method or variable declaration: "
                             + tree);
         }
-        if (shouldCache && fromMemberTreeCache.containsKey(tree)) {
-            return fromMemberTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            boolean hit = fromMemberTreeCache.containsKey(tree);
+            profiler.cacheAccess("fromMemberTreeCache", hit);
+            if (hit) {
+                return fromMemberTreeCache.get(tree).deepCopy();
+            }
+        }
+        AnnotatedTypeMirror result;
+        profiler.start(PhaseProfiler.TYPE_FROM_TREE);
+        try {
+            result = TypeFromTree.fromMember(this, tree);
+        } finally {
+            profiler.stop(PhaseProfiler.TYPE_FROM_TREE);
         }
-        AnnotatedTypeMirror result = TypeFromTree.fromMember(this, tree);
 
         if (checker.hasOption("mergeStubsWithSource")) {
             result = mergeStubsIntoType(result, tree);
@@ -1339,11 +1386,21 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @see TypeFromExpressionVisitor
      */
     private AnnotatedTypeMirror fromExpression(ExpressionTree tree) {
-        if (shouldCache && fromExpressionTreeCache.containsKey(tree)) {
-            return fromExpressionTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            boolean hit = fromExpressionTreeCache.containsKey(tree);
+            profiler.cacheAccess("fromExpressionTreeCache", hit);
+            if (hit) {
+                return fromExpressionTreeCache.get(tree).deepCopy();
+            }
         }
 
-        AnnotatedTypeMirror result = TypeFromTree.fromExpression(this, tree);
+        AnnotatedTypeMirror result;
+        profiler.start(PhaseProfiler.TYPE_FROM_TREE);
+        try {
+            result = TypeFromTree.fromExpression(this, tree);
+        } finally {
+            profiler.stop(PhaseProfiler.TYPE_FROM_TREE);
+        }
 
         if (shouldCache && tree.getKind() != Tree.Kind.NEW_CLASS) {
             // Don't cache the type of object creations, because incorrect
@@ -1367,11 +1424,21 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return the (partially) annotated type of the type in the AST
      */
     /*package private*/ final AnnotatedTypeMirror fromTypeTree(Tree tree) {
-        if (shouldCache && fromTypeTreeCache.containsKey(tree)) {
-            return fromTypeTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            boolean hit = fromTypeTreeCache.containsKey(tree);
+            profiler.cacheAccess("fromTypeTreeCache", hit);
+            if (hit) {
+                return fromTypeTreeCache.get(tree).deepCopy();
+            }
         }
 
-        AnnotatedTypeMirror result = TypeFromTree.fromTypeTree(this, tree);
+        AnnotatedTypeMirror result;
+        profiler.start(PhaseProfiler.TYPE_FROM_TREE);
+        try {
+            result = TypeFromTree.fromTypeTree(this, tree);
+        } finally {
+            profiler.stop(PhaseProfiler.TYPE_FROM_TREE);
+        }
 
         if (shouldCache) {
             fromTypeTreeCache.put(tree, result.deepCopy());
@@ -3157,7 +3224,12 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * <p>Sets typesFromStubFiles and declAnnosFromStubFiles by side effect, just before returning.
      */
     protected void parseStubFiles() {
-        stubTypes.parseStubFiles();
+        profiler.start(PhaseProfiler.STUB_PARSING);
+        try {
+            stubTypes.parseStubFiles();
+        } finally {
+            profiler.stop(PhaseProfiler.STUB_PARSING);
+        }
     }
 
     /**
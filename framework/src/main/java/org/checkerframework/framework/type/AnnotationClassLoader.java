@@ -1,22 +1,29 @@
 package org.checkerframework.framework.type;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Target;
 import java.net.JarURLConnection;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -77,6 +84,15 @@ public class AnnotationClassLoader {
     /** The suffix for a .class file. */
     private static final String CLASS_SUFFIX = ".class";
 
+    // For loading from an index
+    /**
+     * The resource directory of the qualifier indexes written by the build of the Checker
+     * Framework. The index of a qual package is the resource named after the package, such as
+     * {@code META-INF/checkerframework/qualifiers/org.checkerframework.checker.nullness.qual}. It
+     * lists the binary names of the classes in the package, one per line.
+     */
+    private static final String QUALIFIER_INDEX_DIRECTORY = "META-INF/checkerframework/qualifiers/";
+
     // Constants
     /** The package separator. */
     private static final char DOT = '.';
@@ -89,8 +105,12 @@ public class AnnotationClassLoader {
      */
     protected final ProcessingEnvironment processingEnv;
 
-    /** The resource URL of the qual directory of a checker class. */
-    private final URL resourceURL;
+    /**
+     * The resource URL of the qual directory of a checker class, or null if it was not needed
+     * because the package has an index (see {@link #QUALIFIER_INDEX_DIRECTORY}), or if it was not
+     * found.
+     */
+    private final @Nullable URL resourceURL;
 
     /** The class loader used to load annotation classes. */
     protected final URLClassLoader classLoader;
@@ -103,6 +123,16 @@ public class AnnotationClassLoader {
      */
     private final Set<Class<? extends Annotation>> supportedBundledAnnotationClasses;
 
+    /**
+     * Cache of the class names in the qual package of a checker in a jar file, keyed by {@link
+     * #jarCacheKey}. Every checker and subchecker of every compilation would otherwise enumerate
+     * all entries of the jar; in a build daemon, the same jar is read again for every compilation.
+     * Only the names are cached: which of the classes are supported depends on the checker and its
+     * class loader.
+     */
+    private static final Map<String, Set<@BinaryName String>> jarAnnotationNamesCache =
+            Collections.synchronizedMap(new HashMap<>());
+
     /**
      * Constructor for loading annotations defined for a checker.
      *
@@ -139,6 +169,71 @@ public class AnnotationClassLoader {
 
         classLoader = getClassLoader();
 
+        supportedBundledAnnotationClasses = new LinkedHashSet<>();
+
+        Set<@BinaryName String> indexedAnnotationNames = getAnnotationNamesFromIndex();
+        if (indexedAnnotationNames != null) {
+            // The qual package does not need to be found and scanned.
+            resourceURL = null;
+            supportedBundledAnnotationClasses.addAll(
+                    loadAnnotationClasses(indexedAnnotationNames));
+        } else {
+            resourceURL = getQualPackageURL();
+            loadBundledAnnotationClasses();
+        }
+    }
+
+    /**
+     * Returns the names of the classes in the qual package of the checker, as listed in the index
+     * that the build of the Checker Framework writes for each qual package. This avoids scanning
+     * the directory or the jar file that contains the package.
+     *
+     * @return the binary names of the classes in the qual package, or null if the class loader of
+     *     the checker has no index for the package
+     */
+    @SuppressWarnings("signature") // the index lists binary names
+    private @Nullable Set<@BinaryName String> getAnnotationNamesFromIndex() {
+        // Unlike classLoader, this is also available on Java 9+.
+        ClassLoader checkerClassLoader = InternalUtils.getClassLoaderForClass(checker.getClass());
+        String indexName = QUALIFIER_INDEX_DIRECTORY + packageName;
+        URL indexURL =
+                checkerClassLoader != null
+                        ? checkerClassLoader.getResource(indexName)
+                        : ClassLoader.getSystemResource(indexName);
+        if (indexURL == null) {
+            return null;
+        }
+
+        Set<@BinaryName String> annotationNames = new LinkedHashSet<>();
+        try {
+            URLConnection connection = indexURL.openConnection();
+            // do not keep the jar file open, as in loadBundledAnnotationClasses
+            connection.setUseCaches(false);
+            try (BufferedReader reader =
+                    new BufferedReader(
+                            new InputStreamReader(
+                                    connection.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        annotationNames.add(line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new BugInCF("AnnotationClassLoader: cannot read the index " + indexURL, e);
+        }
+        return annotationNames;
+    }
+
+    /**
+     * Returns the resource URL of the qual package of the checker: either the URL of the package
+     * within a jar file, or the URL of the package directory.
+     *
+     * @return the resource URL of the qual package, or null if it cannot be found
+     */
+    private @Nullable URL getQualPackageURL() {
         URL localResourceURL;
         if (classLoader != null) {
             // if the application classloader is accessible, then directly
@@ -163,11 +258,7 @@ public class AnnotationClassLoader {
             // qual directory
             localResourceURL = getURLFromClasspaths();
         }
-        resourceURL = localResourceURL;
-
-        supportedBundledAnnotationClasses = new LinkedHashSet<>();
-
-        loadBundledAnnotationClasses();
+        return localResourceURL;
     }
 
     /**
@@ -514,22 +605,40 @@ public class AnnotationClassLoader {
                 // file
                 connection.setDefaultUseCaches(false);
                 connection.setUseCaches(false);
-
-                // connect to the Jar file
-                connection.connect();
             } catch (IOException e) {
                 throw new BugInCF(
                         "AnnotationClassLoader: cannot open a connection to the Jar file "
                                 + resourceURL.getFile());
             }
 
-            // open up that jar file and extract annotation class names
-            try (JarFile jarFile = connection.getJarFile()) {
-                // get class names inside the jar file within the particular package
-                annotationNames = getBundledAnnotationNamesFromJar(jarFile);
-            } catch (IOException e) {
-                throw new BugInCF(
-                        "AnnotationClassLoader: cannot open the Jar file " + resourceURL.getFile());
+            String cacheKey = jarCacheKey(connection.getJarFileURL());
+            Set<@BinaryName String> cachedNames =
+                    cacheKey == null ? null : jarAnnotationNamesCache.get(cacheKey);
+            if (cachedNames != null) {
+                annotationNames = cachedNames;
+            } else {
+                try {
+                    // connect to the Jar file
+                    connection.connect();
+                } catch (IOException e) {
+                    throw new BugInCF(
+                            "AnnotationClassLoader: cannot open a connection to the Jar file "
+                                    + resourceURL.getFile());
+                }
+
+                // open up that jar file and extract annotation class names
+                try (JarFile jarFile = connection.getJarFile()) {
+                    // get class names inside the jar file within the particular package
+                    annotationNames = getBundledAnnotationNamesFromJar(jarFile);
+                } catch (IOException e) {
+                    throw new BugInCF(
+                            "AnnotationClassLoader: cannot open the Jar file "
+                                    + resourceURL.getFile());
+                }
+                if (cacheKey != null) {
+                    jarAnnotationNamesCache.put(
+                            cacheKey, Collections.unmodifiableSet(annotationNames));
+                }
             }
 
         } else if (resourceURL.getProtocol().contentEquals("file")) {
@@ -549,6 +658,34 @@ public class AnnotationClassLoader {
         supportedBundledAnnotationClasses.addAll(loadAnnotationClasses(annotationNames));
     }
 
+    /**
+     * Returns the key of {@link #jarAnnotationNamesCache} for the qual package of this checker in
+     * the given jar file. The key includes the time stamp and size of the jar file, so that a jar
+     * file that is rebuilt while the JVM runs is read again.
+     *
+     * @param jarFileURL the URL of a jar file
+     * @return the key for the qual package in {@code jarFileURL}, or null if the jar file is not a
+     *     local file
+     */
+    private @Nullable String jarCacheKey(URL jarFileURL) {
+        if (!jarFileURL.getProtocol().contentEquals("file")) {
+            return null;
+        }
+        File jarFile;
+        try {
+            jarFile = new File(jarFileURL.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+        return jarFile.getAbsolutePath()
+                + File.pathSeparator
+                + jarFile.lastModified()
+                + File.pathSeparator
+                + jarFile.length()
+                + File.pathSeparator
+                + packageName;
+    }
+
     /**
      * Gets the set of annotation classes in the qual directory of a checker shipped with the
      * Checker Framework. Note that the returned set from this method is mutable. This method is
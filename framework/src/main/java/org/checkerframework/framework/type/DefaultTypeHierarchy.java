@@ -11,6 +11,7 @@ import javax.lang.model.util.Types;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.framework.qual.Covariant;
+import org.checkerframework.framework.source.PhaseProfiler;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedIntersectionType;
@@ -157,13 +158,19 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Void>
     @Override
     public boolean isSubtype(
             final AnnotatedTypeMirror subtype, final AnnotatedTypeMirror supertype) {
-        for (final AnnotationMirror top : qualifierHierarchy.getTopAnnotations()) {
-            if (!isSubtype(subtype, supertype, top)) {
-                return false;
+        PhaseProfiler profiler = checker.getPhaseProfiler();
+        profiler.start(PhaseProfiler.IS_SUBTYPE);
+        try {
+            for (final AnnotationMirror top : qualifierHierarchy.getTopAnnotations()) {
+                if (!isSubtype(subtype, supertype, top)) {
+                    return false;
+                }
             }
-        }
 
-        return true;
+            return true;
+        } finally {
+            profiler.stop(PhaseProfiler.IS_SUBTYPE);
+        }
     }
 
     /**
@@ -73,6 +73,7 @@ import org.checkerframework.framework.qual.MonotonicQualifier;
 import org.checkerframework.framework.qual.QualifierForLiterals;
 import org.checkerframework.framework.qual.RelevantJavaTypes;
 import org.checkerframework.framework.qual.TypeUseLocation;
+import org.checkerframework.framework.source.PhaseProfiler;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
 import org.checkerframework.framework.type.poly.DefaultQualifierPolymorphism;
@@ -237,6 +238,7 @@ public abstract class GenericAnnotatedTypeFactory<
 
         this.variablesUnderInitialization = new HashSet<>();
         this.scannedClasses = new HashMap<>();
+        this.lambdaEnclosingMethods = new IdentityHashMap<>();
         this.flowResult = null;
         this.regularExitStores = null;
         this.exceptionalExitStores = null;
@@ -308,6 +310,7 @@ public abstract class GenericAnnotatedTypeFactory<
     public void setRoot(@Nullable CompilationUnitTree root) {
         super.setRoot(root);
         this.scannedClasses.clear();
+        this.lambdaEnclosingMethods.clear();
         this.flowResult = null;
         this.regularExitStores = null;
         this.exceptionalExitStores = null;
@@ -853,6 +856,15 @@ public abstract class GenericAnnotatedTypeFactory<
     /** Map from ClassTree to their dataflow analysis state. */
     protected final Map<ClassTree, ScanState> scannedClasses;
 
+    /**
+     * Map from a lambda expression that is waiting in the lambda queue of {@link
+     * #performFlowAnalysis(ClassTree)} to the method that encloses it. The enclosing method is
+     * known when the lambda is found in the CFG of a method or of another lambda; recording it
+     * there avoids computing a {@link TreePath} for every lambda of a class. Lambdas that are not
+     * in this map have their enclosing method computed from their path.
+     */
+    private final Map<LambdaExpressionTree, MethodTree> lambdaEnclosingMethods;
+
     /**
      * The result of the flow analysis. Invariant:
      *
@@ -1215,10 +1227,15 @@ public abstract class GenericAnnotatedTypeFactory<
 
                 while (!lambdaQueue.isEmpty()) {
                     Pair<LambdaExpressionTree, Store> lambdaPair = lambdaQueue.poll();
-                    MethodTree mt =
-                            (MethodTree)
-                                    TreeUtils.enclosingOfKind(
-                                            getPath(lambdaPair.first), Kind.METHOD);
+                    MethodTree mt;
+                    if (lambdaEnclosingMethods.containsKey(lambdaPair.first)) {
+                        mt = lambdaEnclosingMethods.remove(lambdaPair.first);
+                    } else {
+                        mt =
+                                (MethodTree)
+                                        TreeUtils.enclosingOfKind(
+                                                getPath(lambdaPair.first), Kind.METHOD);
+                    }
                     analyze(
                             queue,
                             lambdaQueue,
@@ -1278,7 +1295,13 @@ public abstract class GenericAnnotatedTypeFactory<
             boolean updateInitializationStore,
             boolean isStatic,
             Store capturedStore) {
-        ControlFlowGraph cfg = CFCFGBuilder.build(root, ast, checker, this, processingEnv);
+        ControlFlowGraph cfg;
+        profiler.start(PhaseProfiler.CFG_CONSTRUCTION);
+        try {
+            cfg = CFCFGBuilder.build(root, ast, checker, this, processingEnv);
+        } finally {
+            profiler.stop(PhaseProfiler.CFG_CONSTRUCTION);
+        }
 
         if (isInitializationCode) {
             Store initStore = !isStatic ? initializationStore : initializationStaticStore;
@@ -1293,7 +1316,12 @@ public abstract class GenericAnnotatedTypeFactory<
         } else {
             transfer.setFixedInitialStore(capturedStore);
         }
-        analysis.performAnalysis(cfg, fieldValues);
+        profiler.start(PhaseProfiler.FLOW_ANALYSIS);
+        try {
+            analysis.performAnalysis(cfg, fieldValues);
+        } finally {
+            profiler.stop(PhaseProfiler.FLOW_ANALYSIS);
+        }
         AnalysisResult<Value, Store> result = analysis.getResult();
 
         // store result
@@ -1351,7 +1379,18 @@ public abstract class GenericAnnotatedTypeFactory<
             queue.add(Pair.of(cls, getStoreBefore(cls)));
         }
         // add lambdas declared in CFG
+        // The CFG of a method or lambda does not contain the bodies of nested classes, so the
+        // method enclosing each of its lambdas is the method of the CFG itself.
+        MethodTree enclosingMethod = null;
+        if (ast.getKind() == UnderlyingAST.Kind.METHOD) {
+            enclosingMethod = ((CFGMethod) ast).getMethod();
+        } else if (ast.getKind() == UnderlyingAST.Kind.LAMBDA) {
+            enclosingMethod = ((CFGLambda) ast).getMethod();
+        }
         for (LambdaExpressionTree lambda : cfg.getDeclaredLambdas()) {
+            if (enclosingMethod != null) {
+                lambdaEnclosingMethods.put(lambda, enclosingMethod);
+            }
             lambdaQueue.add(Pair.of(lambda, getStoreBefore(lambda)));
         }
 
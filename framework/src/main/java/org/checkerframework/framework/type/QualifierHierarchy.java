@@ -168,7 +168,7 @@ public interface QualifierHierarchy {
                     "QualifierHierarchy.leastUpperBounds: tried to determine LUB with empty sets");
         }
 
-        Set<AnnotationMirror> result = AnnotationUtils.createAnnotationSet();
+        Set<AnnotationMirror> result = AnnotationUtils.createCompactAnnotationSet();
         for (AnnotationMirror a1 : qualifiers1) {
             for (AnnotationMirror a2 : qualifiers2) {
                 AnnotationMirror lub = leastUpperBound(a1, a2);
@@ -256,7 +256,7 @@ public interface QualifierHierarchy {
                     "QualifierHierarchy.greatestLowerBounds: tried to determine GLB with empty sets");
         }
 
-        Set<AnnotationMirror> result = AnnotationUtils.createAnnotationSet();
+        Set<AnnotationMirror> result = AnnotationUtils.createCompactAnnotationSet();
         for (AnnotationMirror a1 : qualifiers1) {
             for (AnnotationMirror a2 : qualifiers2) {
                 AnnotationMirror glb = greatestLowerBound(a1, a2);
@@ -599,7 +599,7 @@ public interface QualifierHierarchy {
     default Set<? extends AnnotationMirror> leastUpperBoundsTypeVariable(
             Collection<? extends AnnotationMirror> annos1,
             Collection<? extends AnnotationMirror> annos2) {
-        Set<AnnotationMirror> result = AnnotationUtils.createAnnotationSet();
+        Set<AnnotationMirror> result = AnnotationUtils.createCompactAnnotationSet();
         for (AnnotationMirror top : getTopAnnotations()) {
             AnnotationMirror anno1ForTop = null;
             for (AnnotationMirror anno1 : annos1) {
@@ -700,7 +700,7 @@ public interface QualifierHierarchy {
     default Set<? extends AnnotationMirror> greatestLowerBoundsTypeVariable(
             Collection<? extends AnnotationMirror> annos1,
             Collection<? extends AnnotationMirror> annos2) {
-        Set<AnnotationMirror> result = AnnotationUtils.createAnnotationSet();
+        Set<AnnotationMirror> result = AnnotationUtils.createCompactAnnotationSet();
         for (AnnotationMirror top : getTopAnnotations()) {
             AnnotationMirror anno1ForTop = null;
             for (AnnotationMirror anno1 : annos1) {
@@ -5,7 +5,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
-import org.checkerframework.javacutil.Pair;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * THIS CLASS IS DESIGNED FOR USE WITH DefaultTypeHierarchy, DefaultRawnessComparer, and
@@ -29,8 +29,7 @@ public class SubtypeVisitHistory {
      * The keys are pairs of types; the value is the set of qualifier hierarchy roots for which the
      * key is in a subtype relationship.
      */
-    private final Map<Pair<AnnotatedTypeMirror, AnnotatedTypeMirror>, Set<AnnotationMirror>>
-            visited;
+    private final Map<TypePair, Set<AnnotationMirror>> visited;
 
     public SubtypeVisitHistory() {
         this.visited = new HashMap<>();
@@ -54,7 +53,7 @@ public class SubtypeVisitHistory {
             // We only store information about subtype relations that hold.
             return;
         }
-        Pair<AnnotatedTypeMirror, AnnotatedTypeMirror> key = Pair.of(type1, type2);
+        TypePair key = new TypePair(type1, type2);
         Set<AnnotationMirror> hit = visited.get(key);
 
         if (hit != null) {
@@ -71,7 +70,7 @@ public class SubtypeVisitHistory {
             final AnnotatedTypeMirror type1,
             final AnnotatedTypeMirror type2,
             AnnotationMirror currentTop) {
-        Pair<AnnotatedTypeMirror, AnnotatedTypeMirror> key = Pair.of(type1, type2);
+        TypePair key = new TypePair(type1, type2);
         Set<AnnotationMirror> hit = visited.get(key);
         if (hit != null) {
             hit.remove(currentTop);
@@ -91,7 +90,7 @@ public class SubtypeVisitHistory {
             final AnnotatedTypeMirror type1,
             final AnnotatedTypeMirror type2,
             AnnotationMirror currentTop) {
-        Pair<AnnotatedTypeMirror, AnnotatedTypeMirror> key = Pair.of(type1, type2);
+        TypePair key = new TypePair(type1, type2);
         Set<AnnotationMirror> hit = visited.get(key);
         return hit != null && hit.contains(currentTop);
     }
@@ -100,4 +99,83 @@ public class SubtypeVisitHistory {
     public String toString() {
         return "VisitHistory( " + visited + " )";
     }
+
+    /**
+     * A pair of types, used as a key of {@link #visited}.
+     *
+     * <p>Two keys are equal if their types are structurally equal, as for {@code
+     * Pair<AnnotatedTypeMirror, AnnotatedTypeMirror>}. But {@link AnnotatedTypeMirror#hashCode}
+     * visits the whole type and converts every component to a string, so hashing a pair of deeply
+     * nested types costs more than the rest of a subtype test, and a subtype test of nested types
+     * performs such a lookup for every component. A key instead hashes only the underlying types
+     * and the primary annotations, which is consistent with structural equality and takes
+     * constant time. The hash code is computed once, when the key is created.
+     */
+    private static final class TypePair {
+
+        /** The first type. */
+        private final AnnotatedTypeMirror type1;
+
+        /** The second type. */
+        private final AnnotatedTypeMirror type2;
+
+        /** The hash code of this key. */
+        private final int hashCode;
+
+        /**
+         * Creates a key for the given types.
+         *
+         * @param type1 the first type
+         * @param type2 the second type
+         */
+        TypePair(AnnotatedTypeMirror type1, AnnotatedTypeMirror type2) {
+            this.type1 = type1;
+            this.type2 = type2;
+            this.hashCode = 31 * shallowHashCode(type1) + shallowHashCode(type2);
+        }
+
+        /**
+         * Returns a hash code of the underlying type and the primary annotations of {@code type}.
+         * Structurally equal types have the same shallow hash code, because {@link
+         * EqualityAtmComparer} requires equal underlying types and primary annotations of the same
+         * annotation types.
+         *
+         * @param type a type
+         * @return a hash code of the underlying type and the primary annotations of {@code type}
+         */
+        private static int shallowHashCode(AnnotatedTypeMirror type) {
+            int result = type.getUnderlyingType().hashCode();
+            for (AnnotationMirror anno : type.getAnnotationsField()) {
+                // Annotation types are unique within a compilation, unlike annotation mirrors.
+                result += anno.getAnnotationType().asElement().hashCode();
+            }
+            return result;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TypePair)) {
+                return false;
+            }
+            TypePair other = (TypePair) o;
+            // AnnotatedTypeMirror#equals returns early if the types are the same object, which is
+            // the common case for repeated lookups during one subtype test.
+            return hashCode == other.hashCode
+                    && type1.equals(other.type1)
+                    && type2.equals(other.type2);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + type1 + ", " + type2 + ")";
+        }
+    }
 }
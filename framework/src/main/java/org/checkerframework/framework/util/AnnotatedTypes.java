@@ -63,7 +63,12 @@ public class AnnotatedTypes {
         throw new AssertionError("Class AnnotatedTypes cannot be instantiated.");
     }
 
-    private static AsSuperVisitor asSuperVisitor;
+    /**
+     * The visitor that {@link #asSuper} used last. It is reused while the type factory stays the
+     * same. Compilations that run concurrently in one JVM replace it, so {@link #asSuper} reads it
+     * only once per call and never uses another factory's visitor.
+     */
+    private static volatile @Nullable AsSuperVisitor asSuperVisitor;
 
     /**
      * Copies annotations from {@code type} to a copy of {@code superType} where the type variables
@@ -105,10 +110,12 @@ public class AnnotatedTypes {
      */
     public static <T extends AnnotatedTypeMirror> T asSuper(
             AnnotatedTypeFactory atypeFactory, AnnotatedTypeMirror type, T superType) {
-        if (asSuperVisitor == null || !asSuperVisitor.sameAnnotatedTypeFactory(atypeFactory)) {
-            asSuperVisitor = new AsSuperVisitor(atypeFactory);
+        AsSuperVisitor visitor = asSuperVisitor;
+        if (visitor == null || !visitor.sameAnnotatedTypeFactory(atypeFactory)) {
+            visitor = new AsSuperVisitor(atypeFactory);
+            asSuperVisitor = visitor;
         }
-        return asSuperVisitor.asSuper(type, superType);
+        return visitor.asSuper(type, superType);
     }
 
     /**
@@ -41,12 +41,13 @@ public class ContractsUtils {
 
     /**
      * The currently-used ContractsUtils object. This class is NOT a singleton: this value can
-     * change.
+     * change, for example when compilations run concurrently in one JVM, so {@link #getInstance}
+     * reads it only once.
      */
-    protected static @InternedDistinct ContractsUtils instance;
+    protected static volatile @InternedDistinct ContractsUtils instance;
 
     /** The factory that this ContractsUtils is associated with. */
-    protected GenericAnnotatedTypeFactory<?, ?, ?, ?> factory;
+    protected final GenericAnnotatedTypeFactory<?, ?, ?, ?> factory;
 
     /** Creates a ContractsUtils for the given factory. */
     private ContractsUtils(GenericAnnotatedTypeFactory<?, ?, ?, ?> factory) {
@@ -62,10 +63,12 @@ public class ContractsUtils {
      */
     @SuppressWarnings("interning")
     public static ContractsUtils getInstance(GenericAnnotatedTypeFactory<?, ?, ?, ?> factory) {
-        if (instance == null || instance.factory != factory) {
-            instance = new ContractsUtils(factory);
+        ContractsUtils result = instance;
+        if (result == null || result.factory != factory) {
+            result = new ContractsUtils(factory);
+            instance = result;
         }
-        return instance;
+        return result;
     }
 
     /**
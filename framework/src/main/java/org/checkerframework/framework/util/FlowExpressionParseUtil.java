@@ -38,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -74,6 +75,7 @@ import org.checkerframework.dataflow.cfg.node.ObjectCreationNode;
 import org.checkerframework.framework.source.DiagMessage;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesError;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.Resolver;
 import org.checkerframework.javacutil.TreeUtils;
@@ -105,6 +107,18 @@ public class FlowExpressionParseUtil {
 
     private static final int PARAMETER_REPLACEMENT_LENGTH = PARMETER_REPLACEMENT.length();
 
+    /** The maximum number of entries in {@link #expressionCache}. */
+    private static final int EXPRESSION_CACHE_SIZE = 2000;
+
+    /**
+     * Cache of parsed expressions, from the text of an expression to its JavaParser AST. The same
+     * expression, such as the argument of a contract annotation on a method, is parsed at every use
+     * site. The AST does not depend on the use site: only its conversion to a {@link Receiver}
+     * does, and that conversion does not modify the AST.
+     */
+    private static final Map<String, Expression> expressionCache =
+            Collections.synchronizedMap(CollectionUtils.createLRUCache(EXPRESSION_CACHE_SIZE));
+
     /**
      * Parse a string and return its representation as a {@link Receiver}, or throw an {@link
      * FlowExpressionParseException}.
@@ -122,12 +136,7 @@ public class FlowExpressionParseUtil {
             throws FlowExpressionParseException {
         context = context.copyAndSetUseLocalScope(useLocalScope);
         ProcessingEnvironment env = context.checkerContext.getProcessingEnvironment();
-        Expression expr;
-        try {
-            expr = StaticJavaParser.parseExpression(replaceParameterSyntax(expression));
-        } catch (ParseProblemException e) {
-            throw constructParserException(expression, "is an invalid expression");
-        }
+        Expression expr = parseExpression(expression);
 
         Receiver result;
         try {
@@ -151,6 +160,28 @@ public class FlowExpressionParseUtil {
         return result;
     }
 
+    /**
+     * Returns the JavaParser AST of the given expression, from {@link #expressionCache} if
+     * possible. The result must not be modified.
+     *
+     * @param expression flow expression to parse
+     * @return the AST of {@code expression}
+     * @throws FlowExpressionParseException if {@code expression} is not a valid Java expression
+     */
+    private static Expression parseExpression(String expression)
+            throws FlowExpressionParseException {
+        Expression expr = expressionCache.get(expression);
+        if (expr == null) {
+            try {
+                expr = StaticJavaParser.parseExpression(replaceParameterSyntax(expression));
+            } catch (ParseProblemException e) {
+                throw constructParserException(expression, "is an invalid expression");
+            }
+            expressionCache.put(expression, expr);
+        }
+        return expr;
+    }
+
     /**
      * Replaces every occurrence of "#(number)" with "PARAMETER_REPLACEMENT(number)" where number is
      * an index of a parameter.
@@ -387,10 +418,10 @@ public class FlowExpressionParseUtil {
 
             // methods with scope (receiver expression) need to change the parsing context so that
             // identifiers are resolved with respect to the receiver.
+            // The scope must not be removed from expr, which is shared through expressionCache.
             if (expr.getScope().isPresent()) {
                 Receiver receiver = expr.getScope().get().accept(this, context);
                 context = context.copyChangeToParsingMemberOfReceiver(receiver);
-                expr = expr.removeScope();
             }
 
             String methodName = expr.getNameAsString();
@@ -1,10 +1,13 @@
 package org.checkerframework.framework.util;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -12,6 +15,8 @@ import java.util.StringJoiner;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.dataflow.qual.Pure;
 import org.checkerframework.dataflow.qual.SideEffectFree;
@@ -227,6 +232,32 @@ public class MultiGraphQualifierHierarchy implements QualifierHierarchy {
     /** All qualifiers, including polymorphic qualifiers. */
     private final Set<AnnotationMirror> typeQualifiers;
 
+    // The following fields represent the part of the hierarchy that consists of qualifiers whose
+    // annotation types have no elements.  Each such qualifier has a small integer id, so that
+    // queries about them are answered by bit set and array lookups rather than by comparing
+    // AnnotationMirrors.  Qualifiers with elements are handled by the general code.
+
+    /** Map from the name of each qualifier that has no elements to its id. */
+    private final Map<String, Integer> qualifierIds;
+
+    /**
+     * For each qualifier id, the ids of its transitive supertypes, as given by {@link
+     * #supertypesTransitive}.
+     */
+    private final BitSet[] supertypesById;
+
+    /** For each qualifier id, its top qualifier; null until computed. */
+    private final AnnotationMirror[] topsById;
+
+    /** For each qualifier id, its bottom qualifier; null until computed. */
+    private final AnnotationMirror[] bottomsById;
+
+    /** For each pair of qualifier ids, the lub of the qualifiers; null until computed. */
+    private final AnnotationMirror[][] lubsById;
+
+    /** For each pair of qualifier ids, the glb of the qualifiers; null until computed. */
+    private final AnnotationMirror[][] glbsById;
+
     public MultiGraphQualifierHierarchy(MultiGraphFactory f) {
         this(f, (Object[]) null);
     }
@@ -260,9 +291,53 @@ public class MultiGraphQualifierHierarchy implements QualifierHierarchy {
         Set<AnnotationMirror> typeQualifiers = AnnotationUtils.createAnnotationSet();
         typeQualifiers.addAll(supertypesTransitive.keySet());
         this.typeQualifiers = Collections.unmodifiableSet(typeQualifiers);
+
+        this.qualifierIds = new HashMap<>();
+        List<AnnotationMirror> elementlessQualifiers = new ArrayList<>();
+        for (AnnotationMirror qual : supertypesTransitive.keySet()) {
+            TypeElement annoElt = (TypeElement) qual.getAnnotationType().asElement();
+            if (ElementFilter.methodsIn(annoElt.getEnclosedElements()).isEmpty()) {
+                qualifierIds.put(
+                        AnnotationUtils.annotationName(qual), elementlessQualifiers.size());
+                elementlessQualifiers.add(qual);
+            }
+        }
+        int numIds = elementlessQualifiers.size();
+        this.supertypesById = new BitSet[numIds];
+        for (int id = 0; id < numIds; id++) {
+            BitSet supertypeIds = new BitSet(numIds);
+            for (AnnotationMirror supertype :
+                    supertypesTransitive.get(elementlessQualifiers.get(id))) {
+                Integer supertypeId = qualifierIds.get(AnnotationUtils.annotationName(supertype));
+                if (supertypeId != null) {
+                    supertypeIds.set(supertypeId);
+                }
+            }
+            supertypesById[id] = supertypeIds;
+        }
+        this.topsById = new AnnotationMirror[numIds];
+        this.bottomsById = new AnnotationMirror[numIds];
+        this.lubsById = new AnnotationMirror[numIds][numIds];
+        this.glbsById = new AnnotationMirror[numIds][numIds];
         // System.out.println("MGH: " + this);
     }
 
+    /**
+     * Returns the id of the given qualifier, or -1 if the qualifier is null, has elements, or is
+     * not in this hierarchy. Also returns -1 while the constructor has not yet assigned the ids;
+     * {@link #finish} may query the hierarchy before then.
+     *
+     * @param qual a qualifier
+     * @return the id of {@code qual}, or -1
+     */
+    private int qualifierId(@Nullable AnnotationMirror qual) {
+        if (qual == null || qualifierIds == null) {
+            return -1;
+        }
+        Integer id = qualifierIds.get(AnnotationUtils.annotationName(qual));
+        return id == null ? -1 : id;
+    }
+
     @Override
     public boolean isValid() {
         return !typeQualifiers.isEmpty();
@@ -326,8 +401,15 @@ public class MultiGraphQualifierHierarchy implements QualifierHierarchy {
 
     @Override
     public AnnotationMirror getTopAnnotation(AnnotationMirror start) {
+        int id = qualifierId(start);
+        if (id != -1 && topsById[id] != null) {
+            return topsById[id];
+        }
         for (AnnotationMirror top : tops) {
             if (AnnotationUtils.areSame(start, top) || isSubtype(start, top)) {
+                if (id != -1) {
+                    topsById[id] = top;
+                }
                 return top;
             }
         }
@@ -345,8 +427,15 @@ public class MultiGraphQualifierHierarchy implements QualifierHierarchy {
 
     @Override
     public AnnotationMirror getBottomAnnotation(AnnotationMirror start) {
+        int id = qualifierId(start);
+        if (id != -1 && bottomsById[id] != null) {
+            return bottomsById[id];
+        }
         for (AnnotationMirror bot : bottoms) {
             if (AnnotationUtils.areSame(start, bot) || isSubtype(bot, start)) {
+                if (id != -1) {
+                    bottomsById[id] = bot;
+                }
                 return bot;
             }
         }
@@ -406,6 +495,28 @@ public class MultiGraphQualifierHierarchy implements QualifierHierarchy {
 
     @Override
     public AnnotationMirror leastUpperBound(AnnotationMirror a1, AnnotationMirror a2) {
+        int id1 = qualifierId(a1);
+        int id2 = qualifierId(a2);
+        if (id1 == -1 || id2 == -1) {
+            return computeLeastUpperBound(a1, a2);
+        }
+        AnnotationMirror lub = lubsById[id1][id2];
+        if (lub == null) {
+            lub = computeLeastUpperBound(a1, a2);
+            lubsById[id1][id2] = lub;
+        }
+        return lub;
+    }
+
+    /**
+     * Computes the least upper bound of two qualifiers, without consulting {@link #lubsById}.
+     *
+     * @param a1 the first qualifier
+     * @param a2 the second qualifier
+     * @return the least upper bound of {@code a1} and {@code a2}, or null if they are in different
+     *     hierarchies
+     */
+    private AnnotationMirror computeLeastUpperBound(AnnotationMirror a1, AnnotationMirror a2) {
         if (!AnnotationUtils.areSameByName(getTopAnnotation(a1), getTopAnnotation(a2))) {
             return null;
         } else if (isSubtype(a1, a2)) {
@@ -427,6 +538,27 @@ public class MultiGraphQualifierHierarchy implements QualifierHierarchy {
 
     @Override
     public AnnotationMirror greatestLowerBound(AnnotationMirror a1, AnnotationMirror a2) {
+        int id1 = qualifierId(a1);
+        int id2 = qualifierId(a2);
+        if (id1 == -1 || id2 == -1) {
+            return computeGreatestLowerBound(a1, a2);
+        }
+        AnnotationMirror glb = glbsById[id1][id2];
+        if (glb == null) {
+            glb = computeGreatestLowerBound(a1, a2);
+            glbsById[id1][id2] = glb;
+        }
+        return glb;
+    }
+
+    /**
+     * Computes the greatest lower bound of two qualifiers, without consulting {@link #glbsById}.
+     *
+     * @param a1 the first qualifier
+     * @param a2 the second qualifier
+     * @return the greatest lower bound of {@code a1} and {@code a2}
+     */
+    private AnnotationMirror computeGreatestLowerBound(AnnotationMirror a1, AnnotationMirror a2) {
         if (AnnotationUtils.areSameByName(a1, a2)) {
             return AnnotationUtils.sameElementValues(a1, a2) ? a1 : getBottomAnnotation(a1);
         }
@@ -451,6 +583,12 @@ public class MultiGraphQualifierHierarchy implements QualifierHierarchy {
      */
     @Override
     public boolean isSubtype(AnnotationMirror subAnno, AnnotationMirror superAnno) {
+        int subId = qualifierId(subAnno);
+        int superId = qualifierId(superAnno);
+        if (subId != -1 && superId != -1) {
+            return subId == superId || supertypesById[subId].get(superId);
+        }
+
         checkAnnoInGraph(subAnno);
         checkAnnoInGraph(superAnno);
 
@@ -0,0 +1,114 @@
+package testlib.cfgcache;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.MethodTree;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import javax.lang.model.element.VariableElement;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.basetype.BaseAnnotatedTypeFactory;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
+import org.checkerframework.framework.flow.CFGCache;
+import org.checkerframework.framework.flow.CFStore;
+import org.checkerframework.framework.flow.CFValue;
+import org.checkerframework.javacutil.Pair;
+import testlib.cfgcache.qual.CFGCacheBottom;
+import testlib.cfgcache.qual.CFGCacheTop;
+
+/**
+ * The type factory of {@link CFGCacheChecker} and of its subcheckers. It records the control flow
+ * graph of every method that it analyzes, and whether the "cfgCache" hit counter of the checker's
+ * phase profiler shows that the graph was taken from the {@link CFGCache}.
+ */
+public class CFGCacheAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
+
+    /** The control flow graphs of the analyzed methods. */
+    private final Map<MethodTree, ControlFlowGraph> cfgs = new IdentityHashMap<>();
+
+    /** For each analyzed method, whether its control flow graph was taken from the cache. */
+    private final Map<MethodTree, Boolean> cacheHits = new IdentityHashMap<>();
+
+    /**
+     * Creates a type factory.
+     *
+     * @param checker the checker
+     */
+    public CFGCacheAnnotatedTypeFactory(BaseTypeChecker checker) {
+        super(checker);
+        this.postInit();
+    }
+
+    @Override
+    protected Set<Class<? extends Annotation>> createSupportedTypeQualifiers() {
+        return new HashSet<Class<? extends Annotation>>(
+                Arrays.asList(CFGCacheTop.class, CFGCacheBottom.class));
+    }
+
+    @Override
+    protected void analyze(
+            Queue<Pair<ClassTree, CFStore>> queue,
+            Queue<Pair<LambdaExpressionTree, CFStore>> lambdaQueue,
+            UnderlyingAST ast,
+            List<Pair<VariableElement, CFValue>> fieldValues,
+            ClassTree currentClass,
+            boolean isInitializationCode,
+            boolean updateInitializationStore,
+            boolean isStatic,
+            CFStore capturedStore) {
+        long hitsBefore = profiler.getCacheHits("cfgCache");
+        super.analyze(
+                queue,
+                lambdaQueue,
+                ast,
+                fieldValues,
+                currentClass,
+                isInitializationCode,
+                updateInitializationStore,
+                isStatic,
+                capturedStore);
+        if (ast.getKind() == UnderlyingAST.Kind.METHOD) {
+            cacheHits.put(
+                    ((CFGMethod) ast).getMethod(),
+                    profiler.getCacheHits("cfgCache") > hitsBefore);
+        }
+    }
+
+    @Override
+    protected void postAnalyze(ControlFlowGraph cfg) {
+        super.postAnalyze(cfg);
+        UnderlyingAST ast = cfg.getUnderlyingAST();
+        if (ast.getKind() == UnderlyingAST.Kind.METHOD) {
+            cfgs.put(((CFGMethod) ast).getMethod(), cfg);
+        }
+    }
+
+    /**
+     * Returns the control flow graph of a method that this factory has analyzed.
+     *
+     * @param method a method
+     * @return the control flow graph of {@code method}, or null if it has not been analyzed
+     */
+    public @Nullable ControlFlowGraph getCFG(MethodTree method) {
+        return cfgs.get(method);
+    }
+
+    /**
+     * Returns true if the control flow graph of a method was taken from the cache.
+     *
+     * @param method a method that this factory has analyzed
+     * @return true if the control flow graph of {@code method} was taken from the cache
+     */
+    public boolean isCacheHit(MethodTree method) {
+        return cacheHits.getOrDefault(method, false);
+    }
+}
@@ -0,0 +1,30 @@
+package testlib.cfgcache;
+
+import java.util.LinkedHashSet;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+
+/**
+ * Used to test that the checkers of a compound checker share control flow graphs; see {@link
+ * org.checkerframework.framework.flow.CFGCache}. The subcheckers {@link FirstSubchecker} and
+ * {@link SecondSubchecker} run in that order. For every method, this checker issues the warning
+ * "cfg.shared" if the second subchecker reused the graph that the first one built, and
+ * "cfg.rebuilt" if it built its own graph; see {@link CFGCacheVisitor}.
+ *
+ * <p>The checker must be run with -AresourceStats, which enables the cache hit counters.
+ */
+public class CFGCacheChecker extends BaseTypeChecker {
+    @Override
+    protected LinkedHashSet<Class<? extends BaseTypeChecker>> getImmediateSubcheckerClasses() {
+        LinkedHashSet<Class<? extends BaseTypeChecker>> subcheckers = new LinkedHashSet<>();
+        subcheckers.addAll(super.getImmediateSubcheckerClasses());
+        subcheckers.add(FirstSubchecker.class);
+        subcheckers.add(SecondSubchecker.class);
+        return subcheckers;
+    }
+
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new CFGCacheVisitor(this);
+    }
+}
@@ -0,0 +1,60 @@
+package testlib.cfgcache;
+
+import com.sun.source.tree.MethodTree;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.javacutil.TreeUtils;
+
+/**
+ * The visitor of {@link CFGCacheChecker}. For every method with a body, except constructors, it
+ * compares the control flow graphs of the two subcheckers:
+ *
+ * <ul>
+ *   <li>If they are the same graph and the second subchecker counted a cache hit, it issues the
+ *       warning "cfg.shared".
+ *   <li>If they are different graphs and the second subchecker counted no cache hit, it issues the
+ *       warning "cfg.rebuilt".
+ *   <li>Otherwise, a graph is missing or the graphs and the hit counter disagree, and it issues
+ *       the error "cfg.inconsistent".
+ * </ul>
+ */
+public class CFGCacheVisitor extends BaseTypeVisitor<CFGCacheAnnotatedTypeFactory> {
+
+    /**
+     * Creates a visitor.
+     *
+     * @param checker the checker
+     */
+    public CFGCacheVisitor(BaseTypeChecker checker) {
+        super(checker);
+    }
+
+    @Override
+    protected CFGCacheAnnotatedTypeFactory createTypeFactory() {
+        return new CFGCacheAnnotatedTypeFactory(checker);
+    }
+
+    @Override
+    public Void visitMethod(MethodTree node, Void p) {
+        if (node.getBody() != null && !TreeUtils.isConstructor(node)) {
+            CFGCacheAnnotatedTypeFactory first =
+                    atypeFactory.getTypeFactoryOfSubchecker(FirstSubchecker.class);
+            CFGCacheAnnotatedTypeFactory second =
+                    atypeFactory.getTypeFactoryOfSubchecker(SecondSubchecker.class);
+            ControlFlowGraph firstCFG = first.getCFG(node);
+            ControlFlowGraph secondCFG = second.getCFG(node);
+            boolean hit = second.isCacheHit(node);
+            if (firstCFG == null || secondCFG == null) {
+                checker.reportError(node, "cfg.inconsistent");
+            } else if (firstCFG == secondCFG && hit) {
+                checker.reportWarning(node, "cfg.shared");
+            } else if (firstCFG != secondCFG && !hit) {
+                checker.reportWarning(node, "cfg.rebuilt");
+            } else {
+                checker.reportError(node, "cfg.inconsistent");
+            }
+        }
+        return super.visitMethod(node, p);
+    }
+}
@@ -0,0 +1,19 @@
+package testlib.cfgcache;
+
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.source.SuppressWarningsPrefix;
+
+/** The second subchecker of {@link CFGCacheChecker}. */
+@SuppressWarningsPrefix("second")
+public class SecondSubchecker extends BaseTypeChecker {
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new BaseTypeVisitor<CFGCacheAnnotatedTypeFactory>(this) {
+            @Override
+            protected CFGCacheAnnotatedTypeFactory createTypeFactory() {
+                return new CFGCacheAnnotatedTypeFactory(checker);
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.cfgcache.CFGCacheChecker;
+
+/**
+ * Tests that the subcheckers of a compound checker share a control flow graph exactly when
+ * building it did not depend on the subchecker.
+ */
+public class CFGCacheTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public CFGCacheTest(List<File> testFiles) {
+        super(
+                testFiles,
+                CFGCacheChecker.class,
+                "cfg-cache",
+                "-Anomsgtext",
+                "-AresourceStats",
+                "-AFirstSubchecker_stubs=tests/cfg-cache/first.astub");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"cfg-cache"};
+    }
+}
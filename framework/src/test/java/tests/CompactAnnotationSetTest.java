@@ -0,0 +1,150 @@
+package tests;
+
+import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.javacutil.AnnotationBuilder;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import testlib.util.AnnoWithStringArg;
+import testlib.util.Critical;
+import testlib.util.Encrypted;
+import testlib.util.Even;
+import testlib.util.Odd;
+
+/**
+ * Tests that a {@code CompactAnnotationSet} behaves like the set returned by {@link
+ * AnnotationUtils#createAnnotationSet()}, by applying the same random operations to both.
+ */
+public class CompactAnnotationSetTest {
+
+    /** The number of random operation sequences. */
+    private static final int SEQUENCES = 20000;
+
+    /** The maximum number of operations in a sequence. */
+    private static final int MAX_OPERATIONS = 12;
+
+    /**
+     * The annotations that the operations use. Some of them compare equal without being the same
+     * object, so that the sets have to use {@link AnnotationUtils#compareAnnotationMirrors}.
+     */
+    private final List<AnnotationMirror> annotations = new ArrayList<>();
+
+    public CompactAnnotationSetTest() {
+        Context context = new Context();
+        ProcessingEnvironment env = JavacProcessingEnvironment.instance(context);
+        JavaCompiler javac = JavaCompiler.instance(context);
+        javac.initModules(com.sun.tools.javac.util.List.nil());
+        javac.enterDone();
+
+        annotations.add(new AnnotationBuilder(env, Encrypted.class).build());
+        annotations.add(new AnnotationBuilder(env, Encrypted.class).build());
+        annotations.add(new AnnotationBuilder(env, Critical.class).build());
+        annotations.add(new AnnotationBuilder(env, Odd.class).build());
+        annotations.add(new AnnotationBuilder(env, Even.class).build());
+        for (String value : new String[] {"a", "a", "b", "c"}) {
+            AnnotationBuilder builder = new AnnotationBuilder(env, AnnoWithStringArg.class);
+            builder.setValue("value", value);
+            annotations.add(builder.build());
+        }
+    }
+
+    @Test
+    public void randomOperations() {
+        Random random = new Random(20201001);
+        for (int i = 0; i < SEQUENCES; i++) {
+            Set<AnnotationMirror> expected = AnnotationUtils.createAnnotationSet();
+            Set<AnnotationMirror> actual = AnnotationUtils.createCompactAnnotationSet();
+            int length = random.nextInt(MAX_OPERATIONS + 1);
+            StringBuilder log = new StringBuilder("sequence " + i + ":");
+            for (int j = 0; j < length; j++) {
+                AnnotationMirror anno = annotations.get(random.nextInt(annotations.size()));
+                int operation = random.nextInt(10);
+                log.append(' ').append(operation).append(anno);
+                String message = log.toString();
+                switch (operation) {
+                    case 0:
+                    case 1:
+                    case 2:
+                    case 3:
+                        Assert.assertEquals(message, expected.add(anno), actual.add(anno));
+                        break;
+                    case 4:
+                    case 5:
+                        Assert.assertEquals(message, expected.remove(anno), actual.remove(anno));
+                        break;
+                    case 6:
+                    case 7:
+                        Assert.assertEquals(
+                                message, expected.contains(anno), actual.contains(anno));
+                        break;
+                    case 8:
+                        boolean[] toRemove = new boolean[expected.size()];
+                        for (int k = 0; k < toRemove.length; k++) {
+                            toRemove[k] = random.nextBoolean();
+                        }
+                        removeThroughIterator(expected, toRemove);
+                        removeThroughIterator(actual, toRemove);
+                        break;
+                    case 9:
+                        if (random.nextInt(4) == 0) {
+                            expected.clear();
+                            actual.clear();
+                        }
+                        break;
+                    default:
+                        throw new Error("unexpected operation " + operation);
+                }
+                assertSameContents(message, expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Removes the annotations of {@code set} at the positions where {@code toRemove} is true, by
+     * calling {@link Iterator#remove} during an iteration over {@code set}.
+     *
+     * @param set the set to modify
+     * @param toRemove for each position in the iteration order, whether to remove the annotation
+     */
+    private static void removeThroughIterator(Set<AnnotationMirror> set, boolean[] toRemove) {
+        int index = 0;
+        for (Iterator<AnnotationMirror> it = set.iterator(); it.hasNext(); index++) {
+            it.next();
+            if (toRemove[index]) {
+                it.remove();
+            }
+        }
+        Assert.assertEquals(toRemove.length, index);
+    }
+
+    /**
+     * Asserts that {@code actual} contains the same annotations as {@code expected}, in the same
+     * order.
+     *
+     * @param message the message to report on failure
+     * @param expected the expected set
+     * @param actual the set under test
+     */
+    private static void assertSameContents(
+            String message, Set<AnnotationMirror> expected, Set<AnnotationMirror> actual) {
+        Assert.assertEquals(message, expected.size(), actual.size());
+        Assert.assertEquals(message, expected.isEmpty(), actual.isEmpty());
+        Iterator<AnnotationMirror> actualIterator = actual.iterator();
+        for (AnnotationMirror anno : expected) {
+            Assert.assertTrue(message, actualIterator.hasNext());
+            Assert.assertSame(message, anno, actualIterator.next());
+        }
+        Assert.assertFalse(message, actualIterator.hasNext());
+        Assert.assertEquals(message, expected, actual);
+        Assert.assertEquals(message, expected.hashCode(), actual.hashCode());
+    }
+}
@@ -0,0 +1,139 @@
+package tests;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.checkerframework.framework.flow.CopyOnWriteHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests that the copies of a {@link CopyOnWriteHashMap} are independent of each other. */
+public class CopyOnWriteHashMapTest {
+
+    /**
+     * Returns a map from the integers 0 to {@code size - 1} to their string representations.
+     *
+     * @param size the number of entries
+     * @return a new map with {@code size} entries
+     */
+    private static CopyOnWriteHashMap<Integer, String> newMap(int size) {
+        CopyOnWriteHashMap<Integer, String> result = new CopyOnWriteHashMap<>();
+        for (int i = 0; i < size; i++) {
+            result.put(i, Integer.toString(i));
+        }
+        return result;
+    }
+
+    @Test
+    public void copyAndModify() {
+        CopyOnWriteHashMap<Integer, String> original = newMap(10);
+        CopyOnWriteHashMap<Integer, String> copy = CopyOnWriteHashMap.copyOf(original);
+        Assert.assertTrue(CopyOnWriteHashMap.sharesContents(original, copy));
+        Assert.assertEquals(original, copy);
+
+        copy.put(3, "three");
+        copy.remove(4);
+        copy.put(10, "10");
+        Assert.assertFalse(CopyOnWriteHashMap.sharesContents(original, copy));
+        Assert.assertEquals(newMap(10), original);
+        Assert.assertEquals("three", copy.get(3));
+        Assert.assertFalse(copy.containsKey(4));
+        Assert.assertEquals(10, copy.size());
+
+        original.clear();
+        Assert.assertTrue(original.isEmpty());
+        Assert.assertEquals("three", copy.get(3));
+    }
+
+    @Test
+    public void setContents() {
+        CopyOnWriteHashMap<Integer, String> original = newMap(5);
+        CopyOnWriteHashMap<Integer, String> target = newMap(2);
+        target.setContents(original);
+        Assert.assertEquals(original, target);
+        original.put(0, "zero");
+        Assert.assertEquals("0", target.get(0));
+
+        Map<Integer, String> plain = new HashMap<>(newMap(3));
+        target.setContents(plain);
+        plain.put(0, "zero");
+        Assert.assertEquals("0", target.get(0));
+    }
+
+    @Test
+    public void iterateAndRemoveAfterCopy() {
+        CopyOnWriteHashMap<Integer, String> original = newMap(10);
+        CopyOnWriteHashMap<Integer, String> copy = CopyOnWriteHashMap.copyOf(original);
+        for (Iterator<Map.Entry<Integer, String>> it = copy.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getKey() % 2 == 0) {
+                it.remove();
+            }
+        }
+        Assert.assertEquals(newMap(10), original);
+        Assert.assertEquals(5, copy.size());
+        for (Integer key : copy.keySet()) {
+            Assert.assertTrue(key % 2 == 1);
+        }
+    }
+
+    /** The backing map becomes shared after the iteration has started. */
+    @Test
+    public void iterateAndRemoveWhileSharing() {
+        CopyOnWriteHashMap<Integer, String> original = newMap(10);
+        Iterator<Map.Entry<Integer, String>> it = original.entrySet().iterator();
+        it.next();
+        it.remove();
+        CopyOnWriteHashMap<Integer, String> copy = CopyOnWriteHashMap.copyOf(original);
+        Map<Integer, String> expectedCopy = new HashMap<>(copy);
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        Assert.assertTrue(original.isEmpty());
+        Assert.assertEquals(expectedCopy, copy);
+        Assert.assertEquals(9, copy.size());
+    }
+
+    /** {@link Map.Entry#setValue} of an entry of a map whose backing map becomes shared. */
+    @Test
+    public void setValueWhileSharing() {
+        CopyOnWriteHashMap<Integer, String> original = newMap(4);
+        Iterator<Map.Entry<Integer, String>> it = original.entrySet().iterator();
+        Map.Entry<Integer, String> first = it.next();
+        first.setValue("first");
+        CopyOnWriteHashMap<Integer, String> copy = CopyOnWriteHashMap.copyOf(original);
+        Map.Entry<Integer, String> second = it.next();
+        second.setValue("second");
+        Assert.assertEquals("first", original.get(first.getKey()));
+        Assert.assertEquals("second", original.get(second.getKey()));
+        Assert.assertEquals("first", copy.get(first.getKey()));
+        Assert.assertEquals(Integer.toString(second.getKey()), copy.get(second.getKey()));
+    }
+
+    /** The key set view removes keys from a private copy of a shared backing map. */
+    @Test
+    public void keySetRemoveAfterCopy() {
+        CopyOnWriteHashMap<Integer, String> original = newMap(10);
+        CopyOnWriteHashMap<Integer, String> copy = CopyOnWriteHashMap.copyOf(original);
+        for (Iterator<Integer> it = copy.keySet().iterator(); it.hasNext(); ) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        Assert.assertTrue(copy.keySet().remove(1));
+        Assert.assertFalse(copy.keySet().remove(2));
+        Assert.assertEquals(newMap(10), original);
+        Assert.assertEquals(4, copy.size());
+        Assert.assertFalse(copy.keySet().contains(0));
+        Assert.assertTrue(copy.keySet().contains(3));
+    }
+
+    @Test
+    public void forEach() {
+        CopyOnWriteHashMap<Integer, String> original = newMap(5);
+        CopyOnWriteHashMap<Integer, String> copy = CopyOnWriteHashMap.copyOf(original);
+        Map<Integer, String> visited = new HashMap<>();
+        copy.forEach(visited::put);
+        Assert.assertEquals(original, visited);
+    }
+}
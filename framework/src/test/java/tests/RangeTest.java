@@ -199,7 +199,7 @@ public class RangeTest {
 
         public ValuesInRangeIterator(Range range) {
             this.range = range;
-            Range.ignoreOverflow = false;
+            Range.setIgnoreOverflow(false);
         }
 
         @Override
@@ -283,7 +283,7 @@ public class RangeTest {
 
     @Test
     public void testCharRange() {
-        Range.ignoreOverflow = false;
+        Range.setIgnoreOverflow(false);
         for (Range range : ranges) {
             Range result = range.charRange();
             for (long value : values) {
@@ -330,13 +330,13 @@ public class RangeTest {
         Range r2 = Range.create(1024 + 17, 1024 + 22);
         Range r3 = Range.create(5, Byte.MAX_VALUE + 2);
 
-        Range.ignoreOverflow = true;
+        Range.setIgnoreOverflow(true);
 
         assert r1.byteRange().equals(Range.create(5, Byte.MAX_VALUE));
         assert r2.byteRange().equals(Range.create(Byte.MAX_VALUE, Byte.MAX_VALUE));
         assert r3.byteRange().equals(Range.create(5, Byte.MAX_VALUE));
 
-        Range.ignoreOverflow = false;
+        Range.setIgnoreOverflow(false);
 
         assert r1.byteRange().equals(Range.BYTE_EVERYTHING);
         assert r2.byteRange().equals(Range.create(17, 22));
@@ -698,4 +698,41 @@ public class RangeTest {
     public void testFactoryTypeKindFailure() {
         Range.create(TypeKind.FLOAT);
     }
+
+    @Test
+    public void testFactoryInterning() {
+        Assert.assertSame(Range.INT_EVERYTHING, Range.create(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        Assert.assertSame(Range.LONG_EVERYTHING, Range.create(Long.MIN_VALUE, Long.MAX_VALUE));
+        Assert.assertSame(Range.create(5, 5), Range.create(2, 2).plus(Range.create(3, 3)));
+        Assert.assertSame(
+                Range.create(-128, -128), Range.create(-64, -64).times(Range.create(2, 2)));
+        Assert.assertEquals(
+                Range.create(1025, 1025), Range.create(1024, 1024).plus(Range.create(1, 1)));
+    }
+
+    @Test
+    public void testArithmeticOverflowBoundaries() {
+        Range max = Range.create(Long.MAX_VALUE, Long.MAX_VALUE);
+        Range min = Range.create(Long.MIN_VALUE, Long.MIN_VALUE);
+        Range one = Range.create(1, 1);
+        Range minusOne = Range.create(-1, -1);
+        Assert.assertEquals(Range.create(Long.MAX_VALUE - 1, Long.MAX_VALUE - 1), max.minus(one));
+        Assert.assertEquals(Range.create(Long.MIN_VALUE + 1, Long.MIN_VALUE + 1), min.plus(one));
+        Assert.assertEquals(Range.create(-Long.MAX_VALUE, -Long.MAX_VALUE), max.times(minusOne));
+        Assert.assertEquals(
+                Range.create(Long.MIN_VALUE, Long.MIN_VALUE),
+                Range.create(Long.MIN_VALUE / 2, Long.MIN_VALUE / 2).times(Range.create(2, 2)));
+        Assert.assertEquals(min, max.plus(one));
+        Assert.assertEquals(max, min.minus(one));
+        Assert.assertEquals(min, min.times(minusOne));
+        Range.setIgnoreOverflow(true);
+        try {
+            Range nearMax = Range.create(Long.MAX_VALUE - 1, Long.MAX_VALUE);
+            Assert.assertEquals(nearMax, nearMax.plus(Range.create(0, 1)));
+            Assert.assertEquals(Range.EVERYTHING, max.plus(one));
+            Assert.assertEquals(Range.EVERYTHING, min.times(minusOne));
+        } finally {
+            Range.setIgnoreOverflow(false);
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.common.value.ValueChecker;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests the constant value propagation type system when the flow analysis caches only every third
+ * transfer result of a block, so that most store queries resume from an earlier node.
+ *
+ * <p>NOTE: $CHECKERFRAMEWORK/framework/tests/value/ needs to be on the classpath, as for {@link
+ * ValueTest}.
+ */
+public class ValueCheckpointIntervalTest extends CheckerFrameworkPerDirectoryTest {
+
+    /** @param testFiles the files containing test code, which will be type-checked */
+    public ValueCheckpointIntervalTest(List<File> testFiles) {
+        super(
+                testFiles,
+                org.checkerframework.common.value.ValueChecker.class,
+                "value",
+                "-Anomsgtext",
+                "-Astubs=tests/value/minints-stub.astub:tests/value/lowercase.astub",
+                "-A" + ValueChecker.REPORT_EVAL_WARNS,
+                "-AflowCheckpointInterval=3");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"value", "all-systems"};
+    }
+}
@@ -0,0 +1,44 @@
+// Test case for sharing control flow graphs between the subcheckers of a compound checker.
+// The first subchecker's stub file first.astub annotates Runtime.halt with @TerminatesExecution.
+
+import java.util.List;
+
+public class SharedGraphs {
+
+    // :: warning: (cfg.shared)
+    int plain(int x) {
+        if (x > 0) {
+            return x + 1;
+        }
+        return 0;
+    }
+
+    // :: warning: (cfg.shared)
+    int callsPlain() {
+        return plain(1);
+    }
+
+    // :: warning: (cfg.rebuilt)
+    int enhancedFor(List<Integer> list) {
+        int sum = 0;
+        for (int i : list) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    // :: warning: (cfg.rebuilt)
+    void assumeAssertionForFirst(Object o) {
+        assert o != null : "@AssumeAssertion(first)";
+    }
+
+    // :: warning: (cfg.shared)
+    void plainAssertion(Object o) {
+        assert o != null : "o is not null";
+    }
+
+    // :: warning: (cfg.rebuilt)
+    void haltsForFirst(Runtime runtime) {
+        runtime.halt(1);
+    }
+}
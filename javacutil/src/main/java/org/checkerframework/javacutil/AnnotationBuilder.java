@@ -1,6 +1,7 @@
 package org.checkerframework.javacutil;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -10,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.WeakHashMap;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
@@ -54,6 +56,16 @@ import org.plumelib.util.UtilPlume;
  */
 public class AnnotationBuilder {
 
+    /**
+     * The canonical instances of annotations without element values, by annotation type. {@link
+     * #fromName} and {@link #build} return these instances, so that annotations built by the
+     * Checker Framework that have no element values can be compared by {@code ==}. The keys are
+     * javac symbols, which are unique within a compilation; the map refers to them weakly, so that
+     * it does not keep finished compilations alive.
+     */
+    private static final Map<TypeElement, WeakReference<AnnotationMirror>> elementlessAnnotations =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
     /** The element utilities to use. */
     private final Elements elements;
     /** The type utilities to use. */
@@ -173,9 +185,28 @@ public class AnnotationBuilder {
         if (annoType == null) {
             return null;
         }
-        AnnotationMirror result =
-                new CheckerFrameworkAnnotationMirror(annoType, Collections.emptyMap());
-        return result;
+        return elementlessAnnotation(annoElt, annoType);
+    }
+
+    /**
+     * Returns the canonical annotation of the given type without element values.
+     *
+     * @param annoElt the annotation type element
+     * @param annoType the annotation type
+     * @return the canonical annotation of type {@code annoType} without element values
+     */
+    private static AnnotationMirror elementlessAnnotation(
+            TypeElement annoElt, DeclaredType annoType) {
+        synchronized (elementlessAnnotations) {
+            WeakReference<AnnotationMirror> ref = elementlessAnnotations.get(annoElt);
+            AnnotationMirror result = ref == null ? null : ref.get();
+            if (result == null) {
+                result = new CheckerFrameworkAnnotationMirror(annoType, Collections.emptyMap());
+                // The value must not refer to the key strongly, or the entry is never removed.
+                elementlessAnnotations.put(annoElt, new WeakReference<>(result));
+            }
+            return result;
+        }
     }
 
     /** Whether or not {@link #build()} has been called. */
@@ -187,9 +218,18 @@ public class AnnotationBuilder {
         }
     }
 
+    /**
+     * Returns the annotation built by this builder. If no element values were set, the result is
+     * the canonical instance of the annotation, the same one that {@link #fromName} returns.
+     *
+     * @return the annotation built by this builder
+     */
     public AnnotationMirror build() {
         assertNotBuilt();
         wasBuilt = true;
+        if (elementValues.isEmpty()) {
+            return elementlessAnnotation(annotationElt, annotationType);
+        }
         return new CheckerFrameworkAnnotationMirror(annotationType, elementValues);
     }
 
@@ -325,6 +325,9 @@ public class AnnotationUtils {
      * @return an ordering over AnnotationMirrors based on their name and values
      */
     public static int compareAnnotationMirrors(AnnotationMirror a1, AnnotationMirror a2) {
+        if (a1 == a2) {
+            return 0;
+        }
         if (!AnnotationUtils.areSameByName(a1, a2)) {
             return annotationName(a1).compareTo(annotationName(a2));
         }
@@ -332,6 +335,10 @@ public class AnnotationUtils {
         // The annotations have the same name, but different values, so compare values.
         Map<? extends ExecutableElement, ? extends AnnotationValue> vals1 = a1.getElementValues();
         Map<? extends ExecutableElement, ? extends AnnotationValue> vals2 = a2.getElementValues();
+        if (vals1.isEmpty() && vals2.isEmpty()) {
+            // Both annotations use the default of every element.
+            return 0;
+        }
         Set<ExecutableElement> sortedElements =
                 new TreeSet<>(Comparator.comparing(ElementUtils::getSimpleName));
         sortedElements.addAll(
@@ -460,6 +467,18 @@ public class AnnotationUtils {
         return new TreeSet<>(AnnotationUtils::compareAnnotationMirrors);
     }
 
+    /**
+     * Constructs a {@link Set} for storing {@link AnnotationMirror}s that is compact when it
+     * contains at most two annotations. It has the same contents, order, and equality as the set
+     * returned by {@link #createAnnotationSet()}, but it is not a {@link NavigableSet}. Use it for
+     * sets that are stored in long-lived objects, such as the primary annotations of a type.
+     *
+     * @return a sorted new set to store {@link AnnotationMirror} as element
+     */
+    public static Set<AnnotationMirror> createCompactAnnotationSet() {
+        return new CompactAnnotationSet();
+    }
+
     /**
      * Returns true if the given annotation has a @Inherited meta-annotation.
      *
@@ -580,6 +599,10 @@ public class AnnotationUtils {
 
         Map<? extends ExecutableElement, ? extends AnnotationValue> vals1 = am1.getElementValues();
         Map<? extends ExecutableElement, ? extends AnnotationValue> vals2 = am2.getElementValues();
+        if (vals1.isEmpty() && vals2.isEmpty()) {
+            // Both annotations use the default of every element.
+            return true;
+        }
         for (ExecutableElement meth :
                 ElementFilter.methodsIn(
                         am1.getAnnotationType().asElement().getEnclosedElements())) {
@@ -0,0 +1,176 @@
+package org.checkerframework.javacutil;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A set of {@link AnnotationMirror}s that behaves like the set returned by {@link
+ * AnnotationUtils#createAnnotationSet()}: it is ordered by {@link
+ * AnnotationUtils#compareAnnotationMirrors}, and it contains at most one annotation that compares
+ * equal to any given annotation. It uses much less memory when it contains at most two
+ * annotations, which is the common case: a type usually has one primary annotation per type
+ * hierarchy, and most checkers have one or two type hierarchies.
+ *
+ * <p>Up to two annotations are stored in fields of the set. A third annotation moves all of them
+ * into a {@code TreeSet}, which the set keeps using until it is cleared.
+ *
+ * <p>Use {@link AnnotationUtils#createCompactAnnotationSet()} to create an instance.
+ */
+public final class CompactAnnotationSet extends AbstractSet<AnnotationMirror> {
+
+    /** The smallest annotation of this set, if it has at most two annotations. */
+    private @Nullable AnnotationMirror first;
+
+    /** The second annotation of this set, if it has exactly two annotations. */
+    private @Nullable AnnotationMirror second;
+
+    /**
+     * The annotations of this set, if it has had more than two annotations since it was last
+     * cleared; null otherwise. If this is non-null, {@link #first} and {@link #second} are null.
+     */
+    private @Nullable NavigableSet<AnnotationMirror> overflow;
+
+    /** Creates an empty set. */
+    CompactAnnotationSet() {}
+
+    @Override
+    public int size() {
+        if (overflow != null) {
+            return overflow.size();
+        }
+        return first == null ? 0 : second == null ? 1 : 2;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return overflow != null ? overflow.isEmpty() : first == null;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+        if (overflow != null) {
+            return overflow.contains(o);
+        }
+        if (!(o instanceof AnnotationMirror)) {
+            return false;
+        }
+        AnnotationMirror anno = (AnnotationMirror) o;
+        return (first != null && AnnotationUtils.compareAnnotationMirrors(first, anno) == 0)
+                || (second != null && AnnotationUtils.compareAnnotationMirrors(second, anno) == 0);
+    }
+
+    @Override
+    public boolean add(AnnotationMirror anno) {
+        if (anno == null) {
+            throw new BugInCF("CompactAnnotationSet.add: null annotation");
+        }
+        if (overflow != null) {
+            return overflow.add(anno);
+        }
+        if (first == null) {
+            first = anno;
+            return true;
+        }
+        int compareToFirst = AnnotationUtils.compareAnnotationMirrors(anno, first);
+        if (compareToFirst == 0) {
+            return false;
+        }
+        if (second == null) {
+            if (compareToFirst < 0) {
+                second = first;
+                first = anno;
+            } else {
+                second = anno;
+            }
+            return true;
+        }
+        if (AnnotationUtils.compareAnnotationMirrors(anno, second) == 0) {
+            return false;
+        }
+        NavigableSet<AnnotationMirror> newOverflow = AnnotationUtils.createAnnotationSet();
+        newOverflow.add(first);
+        newOverflow.add(second);
+        newOverflow.add(anno);
+        overflow = newOverflow;
+        first = null;
+        second = null;
+        return true;
+    }
+
+    @Override
+    public boolean remove(@Nullable Object o) {
+        if (overflow != null) {
+            return overflow.remove(o);
+        }
+        if (!(o instanceof AnnotationMirror)) {
+            return false;
+        }
+        AnnotationMirror anno = (AnnotationMirror) o;
+        if (first != null && AnnotationUtils.compareAnnotationMirrors(first, anno) == 0) {
+            first = second;
+            second = null;
+            return true;
+        }
+        if (second != null && AnnotationUtils.compareAnnotationMirrors(second, anno) == 0) {
+            second = null;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        first = null;
+        second = null;
+        overflow = null;
+    }
+
+    @Override
+    public Iterator<AnnotationMirror> iterator() {
+        if (overflow != null) {
+            return overflow.iterator();
+        }
+        return new InlineIterator();
+    }
+
+    /** An iterator over the annotations in {@link #first} and {@link #second}. */
+    private final class InlineIterator implements Iterator<AnnotationMirror> {
+
+        /** The index of the next annotation to return: 0 for first and 1 for second. */
+        private int next = 0;
+
+        /** The annotation most recently returned by {@link #next}, or null after a removal. */
+        private @Nullable AnnotationMirror lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            return next < size();
+        }
+
+        @Override
+        public AnnotationMirror next() {
+            AnnotationMirror result = next == 0 ? first : next == 1 ? second : null;
+            if (result == null) {
+                throw new NoSuchElementException();
+            }
+            next++;
+            lastReturned = result;
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            CompactAnnotationSet.this.remove(lastReturned);
+            // The annotations after the removed one have moved down by one.
+            next--;
+            lastReturned = null;
+        }
+    }
+}